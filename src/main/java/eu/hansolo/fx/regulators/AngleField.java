@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.regulators;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Process wide cache of the angle fields used by the ConicalGradient rasterizer.
+ * An angle field holds the clockwise angle (starting at 12 o'clock) of every pixel
+ * around the given center, quantized to 16 bit (0 - 65535 for 0 - 360 deg).
+ * The field only depends on the size and the center, so all gradients of the
+ * same size share one field. If the center lies on the pixel grid (or exactly
+ * between two pixels) only one octant is calculated and mirrored.
+ */
+final class AngleField {
+    static final         int              ANGLE_BITS = 16;
+    private static final double           QUANTIZE   = (1 << ANGLE_BITS) / 360.0;
+    private static final long             MAX_BYTES  = 16 * 1024 * 1024;
+    private static final Map<Key, char[]> CACHE      = new LinkedHashMap<>(16, 0.75f, true);
+    private static       long             cachedBytes;
+
+
+    // ******************** Constructors **************************************
+    private AngleField() {}
+
+
+    // ******************** Methods *******************************************
+    static char[] get(final int WIDTH, final int HEIGHT, final double CENTER_X, final double CENTER_Y) {
+        final Key KEY = new Key(WIDTH, HEIGHT, CENTER_X, CENTER_Y);
+        synchronized (CACHE) {
+            char[] field = CACHE.get(KEY);
+            if (null != field) return field;
+        }
+        final char[] FIELD = calculate(WIDTH, HEIGHT, CENTER_X, CENTER_Y);
+        synchronized (CACHE) {
+            char[] field = CACHE.get(KEY);
+            if (null != field) return field;
+            CACHE.put(KEY, FIELD);
+            cachedBytes += FIELD.length * 2L;
+            Iterator<char[]> iterator = CACHE.values().iterator();
+            while (cachedBytes > MAX_BYTES && CACHE.size() > 1) {
+                cachedBytes -= iterator.next().length * 2L;
+                iterator.remove();
+            }
+        }
+        return FIELD;
+    }
+
+    private static char[] calculate(final int WIDTH, final int HEIGHT, final double CENTER_X, final double CENTER_Y) {
+        final char[]  FIELD     = new char[WIDTH * HEIGHT];
+        final double  FRACTION  = CENTER_X - Math.floor(CENTER_X);
+        final boolean SYMMETRIC = Double.compare(FRACTION, CENTER_Y - Math.floor(CENTER_Y)) == 0 &&
+                                  (Double.compare(FRACTION, 0.0) == 0 || Double.compare(FRACTION, 0.5) == 0);
+        if (SYMMETRIC) {
+            // Calculate the octant 0 - 45 deg and mirror it into the other seven octants
+            final int EXTENT = (int) Math.ceil(Math.max(Math.max(CENTER_X, WIDTH - 1 - CENTER_X), Math.max(CENTER_Y, HEIGHT - 1 - CENTER_Y))) + 1;
+            for (int j = 0; j <= EXTENT; j++) {
+                double b = j + FRACTION;
+                for (int i = 0; i <= j; i++) {
+                    double a = i + FRACTION;
+                    double t = Math.toDegrees(Math.atan2(a, b));
+                    set(FIELD, WIDTH, HEIGHT, CENTER_X + a, CENTER_Y - b, t);
+                    set(FIELD, WIDTH, HEIGHT, CENTER_X + b, CENTER_Y - a, 90.0 - t);
+                    set(FIELD, WIDTH, HEIGHT, CENTER_X + b, CENTER_Y + a, 90.0 + t);
+                    set(FIELD, WIDTH, HEIGHT, CENTER_X + a, CENTER_Y + b, 180.0 - t);
+                    set(FIELD, WIDTH, HEIGHT, CENTER_X - a, CENTER_Y + b, 180.0 + t);
+                    set(FIELD, WIDTH, HEIGHT, CENTER_X - b, CENTER_Y + a, 270.0 - t);
+                    set(FIELD, WIDTH, HEIGHT, CENTER_X - b, CENTER_Y - a, 270.0 + t);
+                    set(FIELD, WIDTH, HEIGHT, CENTER_X - a, CENTER_Y - b, 360.0 - t);
+                }
+            }
+        } else {
+            for (int y = 0; y < HEIGHT; y++) {
+                int row = y * WIDTH;
+                for (int x = 0; x < WIDTH; x++) {
+                    double dx = x - CENTER_X;
+                    double dy = y - CENTER_Y;
+                    double angle = Double.compare(dx, 0) == 0 && Double.compare(dy, 0) == 0 ? 0 : Math.toDegrees(Math.atan2(dx, -dy));
+                    FIELD[row + x] = quantize(angle < 0 ? angle + 360.0 : angle);
+                }
+            }
+        }
+        return FIELD;
+    }
+
+    private static void set(final char[] FIELD, final int WIDTH, final int HEIGHT, final double X, final double Y, final double ANGLE) {
+        int x = (int) Math.round(X);
+        int y = (int) Math.round(Y);
+        if (x < 0 || x >= WIDTH || y < 0 || y >= HEIGHT) return;
+        FIELD[y * WIDTH + x] = quantize(ANGLE);
+    }
+
+    private static char quantize(final double ANGLE) {
+        int angle = (int) (ANGLE * QUANTIZE);
+        return (char) (angle >= (1 << ANGLE_BITS) ? angle - (1 << ANGLE_BITS) : angle);
+    }
+
+
+    // ******************** Inner Classes *************************************
+    private static final class Key {
+        private final int    width;
+        private final int    height;
+        private final double centerX;
+        private final double centerY;
+
+        Key(final int WIDTH, final int HEIGHT, final double CENTER_X, final double CENTER_Y) {
+            width   = WIDTH;
+            height  = HEIGHT;
+            centerX = CENTER_X;
+            centerY = CENTER_Y;
+        }
+
+        @Override public boolean equals(final Object OBJECT) {
+            if (this == OBJECT) return true;
+            if (!(OBJECT instanceof Key)) return false;
+            Key key = (Key) OBJECT;
+            return width == key.width && height == key.height &&
+                   Double.compare(centerX, key.centerX) == 0 && Double.compare(centerY, key.centerY) == 0;
+        }
+
+        @Override public int hashCode() {
+            int result = 31 * width + height;
+            result = 31 * result + Double.hashCode(centerX);
+            result = 31 * result + Double.hashCode(centerY);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.regulators;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Transform;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+
+/**
+ * Shares the baked bezel images between all controls of the same type, size, color
+ * and render scale. A baked bezel consists of three layers, the background below the
+ * bar, the ring and main circle with their effects at the position of the ring and the
+ * highlight of the pane on top of all other nodes. The images are only weakly
+ * referenced, an image stays in the cache as long as a control shows it.
+ * Must only be used on the FX application thread because the bezels are rendered with
+ * a snapshot.
+ */
+final class BezelCache {
+    enum Layer { BACK, FRONT, HIGHLIGHT }
+
+    private static final Map<Key, WeakReference<WritableImage>> CACHE = new HashMap<>();
+
+
+    // ******************** Constructors **************************************
+    private BezelCache() {}
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Returns the bezel layer for the given key and renders it with a snapshot of
+     * the region created by FACTORY if there is none.
+     * @param TYPE the type of the control
+     * @param LAYER the layer of the bezel
+     * @param SIZE the size of the control in logical pixels
+     * @param COLOR the color of the control
+     * @param SCALE the render scale of the window
+     * @param FACTORY creates the offscreen layer with its origin at 0, 0
+     * @return an image with SIZE * SCALE pixels in both directions
+     */
+    static WritableImage acquire(final Class<?> TYPE, final Layer LAYER, final double SIZE, final Color COLOR, final double SCALE, final Supplier<Region> FACTORY) {
+        final Key KEY = new Key(TYPE, LAYER, SIZE, COLOR, SCALE);
+        WritableImage image = get(KEY);
+        if (null != image) return image;
+        image = snapshot(FACTORY.get(), SIZE, SCALE);
+        put(KEY, image);
+        return image;
+    }
+
+    /**
+     * Returns the highlight of the pane as an overlay that can be drawn on top of
+     * the live nodes. An effect like an InnerShadow only depends on the shape of
+     * the pane, on opaque content it turns every pixel c into a + b * c. The
+     * overlay is derived from the pane filled with black (a) and with white
+     * (a + b) and has the color a and the opacity 1 - b. Within the pane it looks
+     * like the effect applied to whatever is drawn below it, on the antialiased
+     * border of the pane the overlay is weakened by the coverage of the pane.
+     * @param TYPE the type of the control
+     * @param SIZE the size of the control in logical pixels
+     * @param SCALE the render scale of the window
+     * @param FACTORY creates the offscreen pane with the effect filled with the given color
+     * @return an image with SIZE * SCALE pixels in both directions
+     */
+    static WritableImage acquireHighlight(final Class<?> TYPE, final double SIZE, final double SCALE, final Function<Color, Region> FACTORY) {
+        final Key KEY = new Key(TYPE, Layer.HIGHLIGHT, SIZE, Color.TRANSPARENT, SCALE);
+        WritableImage image = get(KEY);
+        if (null != image) return image;
+
+        final PixelReader DARK   = snapshot(FACTORY.apply(Color.BLACK), SIZE, SCALE).getPixelReader();
+        final PixelReader LIGHT  = snapshot(FACTORY.apply(Color.WHITE), SIZE, SCALE).getPixelReader();
+        final int         PIXELS = pixels(SIZE, SCALE);
+        image = new WritableImage(PIXELS, PIXELS);
+        final PixelWriter WRITER = image.getPixelWriter();
+        for (int y = 0 ; y < PIXELS ; y++) {
+            for (int x = 0 ; x < PIXELS ; x++) {
+                final int DARK_ARGB = DARK.getArgb(x, y);
+                final int ALPHA     = DARK_ARGB >>> 24;
+                if (0 == ALPHA) continue;
+                // b is the same for all channels, green is as good as any other
+                final int STRENGTH = 255 - clamp((LIGHT.getArgb(x, y) >> 8 & 0xFF) - (DARK_ARGB >> 8 & 0xFF));
+                if (0 == STRENGTH) continue;
+                final double FACTOR  = 255.0 / STRENGTH;
+                final int    OPACITY = (int) Math.round(STRENGTH * ALPHA / 255.0);
+                final int    RED     = clamp((int) Math.round((DARK_ARGB >> 16 & 0xFF) * FACTOR));
+                final int    GREEN   = clamp((int) Math.round((DARK_ARGB >>  8 & 0xFF) * FACTOR));
+                final int    BLUE    = clamp((int) Math.round((DARK_ARGB       & 0xFF) * FACTOR));
+                WRITER.setArgb(x, y, OPACITY << 24 | RED << 16 | GREEN << 8 | BLUE);
+            }
+        }
+        put(KEY, image);
+        return image;
+    }
+
+    private static WritableImage get(final Key KEY) {
+        final WeakReference<WritableImage> REFERENCE = CACHE.get(KEY);
+        return null == REFERENCE ? null : REFERENCE.get();
+    }
+
+    private static void put(final Key KEY, final WritableImage IMAGE) {
+        CACHE.values().removeIf(reference -> null == reference.get());
+        CACHE.put(KEY, new WeakReference<>(IMAGE));
+    }
+
+    private static WritableImage snapshot(final Region BEZEL, final double SIZE, final double SCALE) {
+        final int PIXELS = pixels(SIZE, SCALE);
+        BEZEL.setPrefSize(SIZE, SIZE);
+        BEZEL.resize(SIZE, SIZE);
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        parameters.setTransform(Transform.scale(SCALE, SCALE));
+        parameters.setViewport(new Rectangle2D(0, 0, PIXELS, PIXELS));
+        return BEZEL.snapshot(parameters, new WritableImage(PIXELS, PIXELS));
+    }
+
+    private static int pixels(final double SIZE, final double SCALE) { return Math.max(1, (int) Math.ceil(SIZE * SCALE)); }
+
+    private static int clamp(final int VALUE) { return VALUE < 0 ? 0 : (VALUE > 255 ? 255 : VALUE); }
+
+
+    // ******************** Inner Classes *************************************
+    private static final class Key {
+        private final Class<?> type;
+        private final Layer    layer;
+        private final double   size;
+        private final Color    color;
+        private final double   scale;
+        private final int      hashCode;
+
+        Key(final Class<?> TYPE, final Layer LAYER, final double SIZE, final Color COLOR, final double SCALE) {
+            type  = TYPE;
+            layer = LAYER;
+            size  = SIZE;
+            color = COLOR;
+            scale = SCALE;
+            int result = type.hashCode();
+            result = 31 * result + layer.hashCode();
+            result = 31 * result + Double.hashCode(size);
+            result = 31 * result + color.hashCode();
+            result = 31 * result + Double.hashCode(scale);
+            hashCode = result;
+        }
+
+        @Override public boolean equals(final Object OBJECT) {
+            if (this == OBJECT) return true;
+            if (!(OBJECT instanceof Key)) return false;
+            Key key = (Key) OBJECT;
+            return hashCode == key.hashCode && type == key.type && layer == key.layer && Double.compare(size, key.size) == 0 &&
+                   Double.compare(scale, key.scale) == 0 && color.equals(key.color);
+        }
+
+        @Override public int hashCode() { return hashCode; }
+    }
+}
@@ -30,7 +30,9 @@ import javafx.scene.CacheHint;
 import javafx.scene.Group;
 import javafx.scene.effect.BlurType;
 import javafx.scene.effect.DropShadow;
+import javafx.scene.effect.Effect;
 import javafx.scene.effect.InnerShadow;
+import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundFill;
@@ -38,6 +40,7 @@ import javafx.scene.layout.CornerRadii;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.Region;
 import javafx.scene.paint.Color;
+import javafx.scene.paint.ImagePattern;
 import javafx.scene.paint.Stop;
 import javafx.scene.shape.Arc;
 import javafx.scene.shape.ArcType;
@@ -48,14 +51,10 @@ import javafx.scene.shape.StrokeLineCap;
 import javafx.scene.text.Text;
 import javafx.scene.transform.Rotate;
 import javafx.scene.transform.Scale;
+import javafx.util.Duration;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.SortedSet;
-import java.util.TreeSet;
 
 
 /**
@@ -71,11 +70,17 @@ public class ColorRegulator extends Region implements RegulatorControl {
     private static final double         MAXIMUM_HEIGHT   = 1024;
     private static final double         MIN_VALUE        = 0.0;
     private static final double         MAX_VALUE        = 100.0;
+    // Compresses the stops onto the bar (0.0 -> 0.611, 0.5 -> 0.0 & 1.0, 1.0 -> 0.389)
+    private static final double         BAR_RANGE        = 0.778;
+    private static final double         SIZE_THRESHOLD   = 0.5;
+    private static final int            DIRTY_GEOMETRY   = 1;
+    private static final int            DIRTY_PAINT      = 1 << 1;
     private              double         BAR_START_ANGLE  = -130;
     private              double         ANGLE_RANGE      = 280;
     private final        RegulatorEvent TARGET_SET_EVENT = new RegulatorEvent(RegulatorEvent.TARGET_SET);
     private double                      size;
     private Arc                         barArc;
+    private SegmentedBar                barSegments;
     private Arc                         buttonOn;
     private Arc                         buttonOff;
     private Shape                       ring;
@@ -86,6 +91,9 @@ public class ColorRegulator extends Region implements RegulatorControl {
     private Circle                      indicator;
     private Circle                      currentColorCircle;
     private Pane                        pane;
+    private ImageView                   bezelBack;
+    private ImageView                   bezelFront;
+    private ImageView                   bezelHighlight;
     private DropShadow                  dropShadow;
     private InnerShadow                 highlight;
     private InnerShadow                 innerShadow;
@@ -101,11 +109,19 @@ public class ColorRegulator extends Region implements RegulatorControl {
     private ObjectProperty<Color>       color;
     private ObjectProperty<Color>       indicatorColor;
     private BooleanProperty             selected;
+    private BooleanProperty             asyncRendering;
+    private BooleanProperty             mipmapping;
+    private BooleanProperty             segmentedBar;
+    private BooleanProperty             bakedBezel;
     private BooleanProperty             on;
     private DoubleProperty              brightness;
     private double                      angleStep;
     private ConicalGradient             barGradient;
     private GradientLookup              gradientLookup;
+    private int                         dirty;
+    private Color                       paintedColor;
+    private Color                       darkerColor;
+    private Color                       darkestColor;
 
 
     // ******************** Constructors **************************************
@@ -132,7 +148,7 @@ public class ColorRegulator extends Region implements RegulatorControl {
         textColor      = new ObjectPropertyBase<Color>(Color.WHITE) {
             @Override protected void invalidated() {
                 super.set(null == get() ? Color.WHITE:  get());
-                redraw();
+                invalidate(DIRTY_PAINT);
             }
             @Override public Object getBean() { return ColorRegulator.this; }
             @Override public String getName() { return "textColor"; }
@@ -140,31 +156,42 @@ public class ColorRegulator extends Region implements RegulatorControl {
         color          = new ObjectPropertyBase<Color>(DEFAULT_COLOR) {
             @Override protected void invalidated() {
                 super.set(null == get() ? DEFAULT_COLOR : get());
-                redraw();
+                invalidate(DIRTY_PAINT);
             }
             @Override public Object getBean() { return ColorRegulator.this; }
             @Override public String getName() { return "color"; }
         };
         indicatorColor = new ObjectPropertyBase<Color>(Color.WHITE) {
-            @Override protected void invalidated() { indicatorGlow.setColor(get()); }
+            @Override protected void invalidated() {
+                indicatorGlow.setColor(get());
+                invalidate(DIRTY_PAINT);
+            }
             @Override public Object getBean() { return ColorRegulator.this; }
             @Override public String getName() { return "indicatorColor"; }
         };
         selected       = new BooleanPropertyBase(false) {
-            @Override protected void invalidated() {
-                if (get()) {
-                    indicator.setFill(getIndicatorColor());
-                    indicator.setStroke(getIndicatorColor().darker().darker());
-                    indicator.setEffect(indicatorGlow);
-                } else {
-                    indicator.setFill(getColor().darker());
-                    indicator.setStroke(getColor().darker().darker());
-                    indicator.setEffect(null);
-                }
-            }
+            @Override protected void invalidated() { invalidate(DIRTY_PAINT); }
             @Override public Object getBean() { return ColorRegulator.this; }
             @Override public String getName() { return "selected"; }
         };
+        asyncRendering = new BooleanPropertyBase(false) {
+            @Override public Object getBean() { return ColorRegulator.this; }
+            @Override public String getName() { return "asyncRendering"; }
+        };
+        mipmapping     = new BooleanPropertyBase(false) {
+            @Override public Object getBean() { return ColorRegulator.this; }
+            @Override public String getName() { return "mipmapping"; }
+        };
+        segmentedBar   = new BooleanPropertyBase(false) {
+            @Override protected void invalidated() { redrawBar(false); }
+            @Override public Object getBean() { return ColorRegulator.this; }
+            @Override public String getName() { return "segmentedBar"; }
+        };
+        bakedBezel     = new BooleanPropertyBase(false) {
+            @Override protected void invalidated() { invalidate(DIRTY_GEOMETRY); }
+            @Override public Object getBean() { return ColorRegulator.this; }
+            @Override public String getName() { return "bakedBezel"; }
+        };
         on             = new BooleanPropertyBase(false) {
             @Override protected void invalidated() { currentColorCircle.setVisible(get()); }
             @Override public Object getBean() { return ColorRegulator.this; }
@@ -179,6 +206,7 @@ public class ColorRegulator extends Region implements RegulatorControl {
             @Override public String getName() { return "brightness"; }
         };
         angleStep      = ANGLE_RANGE / (MAX_VALUE - MIN_VALUE);
+        dirty          = DIRTY_PAINT;
 
         init();
         initGraphics();
@@ -219,16 +247,19 @@ public class ColorRegulator extends Region implements RegulatorControl {
                          new Stop(0.875, Color.rgb(0,255,0)),
                          new Stop(1.0, Color.rgb(255,255,0)) };
 
-        List<Stop> reorderedStops = reorderStops(stops);
+        CompiledStops compiledStops = CompiledStops.of(stops);
 
-        gradientLookup = new GradientLookup(stops);
+        gradientLookup = new GradientLookup(compiledStops);
 
-        barGradient = new ConicalGradient(reorderedStops);
+        barGradient = new ConicalGradient(compiledStops.centered(BAR_RANGE));
         barArc = new Arc(PREFERRED_WIDTH * 0.5, PREFERRED_HEIGHT * 0.5, PREFERRED_WIDTH * 0.46, PREFERRED_HEIGHT * 0.46, BAR_START_ANGLE, 0);
         barArc.setType(ArcType.OPEN);
         barArc.setStrokeLineCap(StrokeLineCap.ROUND);
         barArc.setFill(null);
-        barArc.setStroke(barGradient.getImagePattern(new Rectangle(0, 0, PREFERRED_WIDTH, PREFERRED_HEIGHT)));
+        barArc.setStroke(createBarPattern(PREFERRED_WIDTH, false));
+
+        barSegments = new SegmentedBar();
+        barSegments.setVisible(false);
 
         buttonOn = new Arc(PREFERRED_WIDTH * 0.5, PREFERRED_HEIGHT * 0.5, PREFERRED_WIDTH * 0.46, PREFERRED_HEIGHT * 0.46, -125, 34.75);
         buttonOn.setFill(null);
@@ -289,7 +320,19 @@ public class ColorRegulator extends Region implements RegulatorControl {
         currentColorCircle.setFill(targetColor.get());
         currentColorCircle.setVisible(isOn());
 
-        pane = new Pane(barArc, ring, mainCircle, currentColorCircle, innerRing, indicatorGroup, buttonOn, textOn, buttonOff, textOff);
+        bezelBack = new ImageView();
+        bezelBack.setMouseTransparent(true);
+        bezelBack.setVisible(false);
+
+        bezelFront = new ImageView();
+        bezelFront.setMouseTransparent(true);
+        bezelFront.setVisible(false);
+
+        bezelHighlight = new ImageView();
+        bezelHighlight.setMouseTransparent(true);
+        bezelHighlight.setVisible(false);
+
+        pane = new Pane(bezelBack, barArc, barSegments, bezelFront, ring, mainCircle, currentColorCircle, innerRing, indicatorGroup, buttonOn, textOn, buttonOff, textOff, bezelHighlight);
         pane.setPrefSize(PREFERRED_HEIGHT, PREFERRED_HEIGHT);
         pane.setBackground(new Background(new BackgroundFill(color.get().darker(), new CornerRadii(1024), Insets.EMPTY)));
         pane.setEffect(highlight);
@@ -298,8 +341,7 @@ public class ColorRegulator extends Region implements RegulatorControl {
     }
 
     private void registerListeners() {
-        widthProperty().addListener(o -> resize());
-        heightProperty().addListener(o -> resize());
+        RenderScale.addListener(this, () -> invalidate(DIRTY_GEOMETRY));
         disabledProperty().addListener(o -> setOpacity(isDisabled() ? 0.4 : 1.0));
         targetValueProperty().addListener(o -> rotate(targetValue.get()));
         ring.addEventHandler(MouseEvent.MOUSE_PRESSED, e -> { if (isDisabled()) return; touchRotate(e.getSceneX(), e.getSceneY()); });
@@ -337,12 +379,44 @@ public class ColorRegulator extends Region implements RegulatorControl {
     @Override public void setSelected(final boolean SELECTED) { selected.set(SELECTED); }
     @Override public BooleanProperty selectedProperty() { return selected; }
 
+    public boolean isAsyncRendering() { return asyncRendering.get(); }
+    public void setAsyncRendering(final boolean ASYNC) { asyncRendering.set(ASYNC); }
+    public BooleanProperty asyncRenderingProperty() { return asyncRendering; }
+
+    public boolean isMipmapping() { return mipmapping.get(); }
+    public void setMipmapping(final boolean MIPMAPPING) { mipmapping.set(MIPMAPPING); }
+    public BooleanProperty mipmappingProperty() { return mipmapping; }
+
+    public boolean isSegmentedBar() { return segmentedBar.get(); }
+    public void setSegmentedBar(final boolean SEGMENTED) { segmentedBar.set(SEGMENTED); }
+    public BooleanProperty segmentedBarProperty() { return segmentedBar; }
+
+    /**
+     * If the bezel is baked the background, the ring and the main circle are rendered
+     * with their effects into images, which are shared by all color regulators with the
+     * same size, color and render scale. This saves the effect processing in every
+     * frame, the images will only be rendered again if the size or the color changes.
+     * The highlight of the rim is drawn from an image on top of the live nodes, so
+     * the control looks the same in both modes.
+     * @return true if the static parts of the control are drawn from cached images
+     */
+    public boolean isBakedBezel() { return bakedBezel.get(); }
+    public void setBakedBezel(final boolean BAKED) { bakedBezel.set(BAKED); }
+    public BooleanProperty bakedBezelProperty() { return bakedBezel; }
+
+    public Duration getRefinementDelay() { return barGradient.getRefinementDelay(); }
+    public void setRefinementDelay(final Duration DELAY) { barGradient.setRefinementDelay(DELAY); }
+
+    public ConicalGradient.StorageMode getStorageMode() { return barGradient.getStorageMode(); }
+    public void setStorageMode(final ConicalGradient.StorageMode MODE) { barGradient.setStorageMode(MODE); }
+
     public List<Stop> getGradientStops() { return barGradient.getStops(); }
     public void setGradientStops(final Stop... STOPS) { setGradientStops(Arrays.asList(STOPS)); }
     public void setGradientStops(final List<Stop> STOPS) {
-        gradientLookup.setStops(STOPS);
-        barGradient = new ConicalGradient(reorderStops(STOPS));
-        barArc.setStroke(barGradient.getImagePattern(new Rectangle(0, 0, PREFERRED_WIDTH, PREFERRED_HEIGHT)));
+        final CompiledStops COMPILED_STOPS = CompiledStops.of(STOPS);
+        gradientLookup.setStops(COMPILED_STOPS);
+        barGradient.setStops(COMPILED_STOPS.centered(BAR_RANGE));
+        redrawBar(false);
     }
 
     public boolean isOn() { return on.get(); }
@@ -353,37 +427,6 @@ public class ColorRegulator extends Region implements RegulatorControl {
     public void setBrightness(final double BRIGHTNESS) { brightness.set(BRIGHTNESS); }
     public DoubleProperty brightnessProperty() { return brightness; }
 
-    private List<Stop> reorderStops(final Stop... STOPS) { return reorderStops(Arrays.asList(STOPS)); }
-    private List<Stop> reorderStops(final List<Stop> STOPS) {
-        /*
-        0.0 -> 0.611
-        0.5 -> 0.0 & 1.0
-        1.0 -> 0.389
-         */
-        double range     = 0.778;
-        double halfRange = range * 0.5;
-
-        Map<Double, Color> stopMap = new HashMap<>();
-        for (Stop stop : STOPS) { stopMap.put(stop.getOffset(), stop.getColor()); }
-
-        List<Stop>        sortedStops     = new ArrayList<>(STOPS.size());
-        SortedSet<Double> sortedFractions = new TreeSet<>(stopMap.keySet());
-        if (sortedFractions.last() < 1) {
-            stopMap.put(1.0, stopMap.get(sortedFractions.last()));
-            sortedFractions.add(1.0);
-        }
-        if (sortedFractions.first() > 0) {
-            stopMap.put(0.0, stopMap.get(sortedFractions.first()));
-            sortedFractions.add(0.0);
-        }
-        for (double fraction : sortedFractions) {
-            double offset = fraction * range - halfRange;
-            offset = offset < 0 ? 1.0 + offset : offset;
-            sortedStops.add(new Stop(offset, stopMap.get(fraction)));
-        }
-        return sortedStops;
-    }
-
     private <T extends Number> T clamp(final T MIN, final T MAX, final T VALUE) {
         if (VALUE.doubleValue() < MIN.doubleValue()) return MIN;
         if (VALUE.doubleValue() > MAX.doubleValue()) return MAX;
@@ -410,6 +453,34 @@ public class ColorRegulator extends Region implements RegulatorControl {
 
 
     // ******************** Resizing ******************************************
+    @Override protected void layoutChildren() {
+        super.layoutChildren();
+        final double WIDTH  = getWidth() - getInsets().getLeft() - getInsets().getRight();
+        final double HEIGHT = getHeight() - getInsets().getTop() - getInsets().getBottom();
+        final double SIZE   = WIDTH < HEIGHT ? WIDTH : HEIGHT;
+        // Width and height changes are handled together here, small size changes only recenter the pane
+        if (Math.abs(SIZE - size) >= SIZE_THRESHOLD) {
+            dirty |= DIRTY_GEOMETRY;
+        } else if ((dirty & DIRTY_GEOMETRY) == 0 && size > 0) {
+            pane.relocate((getWidth() - size) * 0.5, (getHeight() - size) * 0.5);
+        }
+        flush();
+    }
+
+    // Changes only set their dirty bit, the affected nodes are updated once per pulse
+    private void invalidate(final int FLAGS) {
+        dirty |= FLAGS;
+        requestLayout();
+    }
+
+    private void flush() {
+        final int DIRTY = dirty;
+        if (0 == DIRTY) return;
+        dirty = 0;
+        if ((DIRTY & DIRTY_GEOMETRY) != 0) { resize(); }
+        if ((DIRTY & DIRTY_PAINT) != 0)    { redraw(); }
+    }
+
     private void rotate(final double VALUE) {
         indicatorRotate.setAngle((VALUE - MIN_VALUE) * angleStep - ANGLE_RANGE * 0.5);
         baseColor = gradientLookup.getColorAt(VALUE / 100.0);
@@ -418,8 +489,30 @@ public class ColorRegulator extends Region implements RegulatorControl {
         currentColorCircle.setFill(targetColor.get());
     }
 
+    private ImagePattern createBarPattern(final double SIZE, final boolean RESIZING) {
+        // Only the band between radius 0.44 and 0.48 is covered by the bar stroke
+        Rectangle bounds = new Rectangle(0, 0, SIZE, SIZE);
+        barGradient.setRenderScale(RenderScale.of(this));
+        if (RESIZING && isMipmapping()) return barGradient.getMipmapRingImagePattern(bounds, SIZE * 0.44 - 1, SIZE * 0.48 + 1, isAsyncRendering(), pattern -> barArc.setStroke(pattern));
+        return isAsyncRendering() ? barGradient.getRingImagePattern(bounds, SIZE * 0.44 - 1, SIZE * 0.48 + 1, pattern -> barArc.setStroke(pattern))
+                                  : barGradient.getRingImagePattern(bounds, SIZE * 0.44 - 1, SIZE * 0.48 + 1);
+    }
+
+    private void redrawBar(final boolean RESIZING) {
+        final double  SIZE      = size > 0 ? size : PREFERRED_WIDTH;
+        final boolean SEGMENTED = isSegmentedBar();
+        if (SEGMENTED) {
+            barSegments.update(SIZE * 0.5, SIZE * 0.5, SIZE * 0.46, SIZE * 0.04, BAR_START_ANGLE, ANGLE_RANGE, barGradient);
+        } else {
+            barArc.setStroke(createBarPattern(SIZE, RESIZING));
+        }
+        barArc.setVisible(!SEGMENTED);
+        barSegments.setVisible(SEGMENTED);
+    }
+
     private void drawBar(final double VALUE) {
         barArc.setLength(-(VALUE - MIN_VALUE) * angleStep);
+        barSegments.setLength(-(VALUE - MIN_VALUE) * angleStep);
     }
 
     private void buttonOnPressed(final boolean PRESSED) {
@@ -451,7 +544,7 @@ public class ColorRegulator extends Region implements RegulatorControl {
             barArc.setRadiusX(size * 0.46);
             barArc.setRadiusY(size * 0.46);
             barArc.setStrokeWidth(size * 0.04);
-            barArc.setStroke(barGradient.getImagePattern(new Rectangle(0, 0, size, size)));
+            redrawBar(true);
             drawBar(MAX_VALUE);
             barArc.setCache(true);
             barArc.setCacheHint(CacheHint.SPEED);
@@ -519,22 +612,92 @@ public class ColorRegulator extends Region implements RegulatorControl {
             innerRing.setCache(true);
             innerRing.setCacheHint(CacheHint.SPEED);
 
-            redraw();
+            updateBezel();
+            rotate(targetValue.get());
+        }
+    }
+
+    private void updateBezel() {
+        if (isBakedBezel() && size > 0) {
+            final double SCALE = RenderScale.of(this);
+            bezelBack.setImage(BezelCache.acquire(ColorRegulator.class, BezelCache.Layer.BACK, size, color.get(), SCALE, () -> createBezelBackground(color.get().darker(), null)));
+            bezelFront.setImage(BezelCache.acquire(ColorRegulator.class, BezelCache.Layer.FRONT, size, color.get(), SCALE, this::createBezelFront));
+            bezelHighlight.setImage(BezelCache.acquireHighlight(ColorRegulator.class, size, SCALE, FILL -> createBezelBackground(FILL, highlight)));
+            for (ImageView layer : new ImageView[] { bezelBack, bezelFront, bezelHighlight }) {
+                layer.setFitWidth(size);
+                layer.setFitHeight(size);
+            }
+            if (bezelBack.isVisible()) return;
+            bezelBack.setVisible(true);
+            bezelFront.setVisible(true);
+            bezelHighlight.setVisible(true);
+            // The ring stays in the scene because it receives the mouse events
+            ring.setEffect(null);
+            ring.setOpacity(0);
+            mainCircle.setVisible(false);
+            pane.setBackground(null);
+            pane.setEffect(null);
+        } else if (bezelBack.isVisible()) {
+            for (ImageView layer : new ImageView[] { bezelBack, bezelFront, bezelHighlight }) {
+                layer.setImage(null);
+                layer.setVisible(false);
+            }
+            ring.setEffect(highlight);
+            ring.setOpacity(1);
+            mainCircle.setVisible(true);
+            pane.setBackground(new Background(new BackgroundFill(color.get().darker(), new CornerRadii(1024), Insets.EMPTY)));
+            pane.setEffect(highlight);
         }
     }
 
+    private Region createBezelBackground(final Color FILL, final Effect EFFECT) {
+        Pane bezelPane = new Pane();
+        bezelPane.setBackground(new Background(new BackgroundFill(FILL, new CornerRadii(1024), Insets.EMPTY)));
+        bezelPane.setEffect(EFFECT);
+        return bezelPane;
+    }
+
+    private Region createBezelFront() {
+        final double CENTER = PREFERRED_WIDTH * 0.5;
+        Shape bezelRing = Shape.subtract(new Circle(CENTER, CENTER, PREFERRED_WIDTH * 0.42),
+                                         new Circle(CENTER, CENTER, PREFERRED_WIDTH * 0.3));
+        bezelRing.setFill(color.get());
+        bezelRing.setEffect(highlight);
+        bezelRing.getTransforms().setAll(new Scale(scaleFactor, scaleFactor, 0, 0));
+        Circle bezelCircle = new Circle(mainCircle.getCenterX(), mainCircle.getCenterY(), mainCircle.getRadius(), color.get().darker().darker());
+        // Cached like ring and mainCircle, the cache rasterizes the shapes and effects slightly differently
+        bezelRing.setCache(true);
+        bezelRing.setCacheHint(CacheHint.SPEED);
+        bezelCircle.setCache(true);
+        bezelCircle.setCacheHint(CacheHint.SPEED);
+        return new Pane(bezelRing, bezelCircle);
+    }
+
     private void redraw() {
-        pane.setBackground(new Background(new BackgroundFill(color.get().darker(), new CornerRadii(1024), Insets.EMPTY)));
-        mainCircle.setFill(color.get().darker().darker());
-        ring.setFill(color.get());
-        innerRing.setFill(color.get());
-        buttonOn.setStroke(color.get());
-        buttonOff.setStroke(color.get());
+        final Color COLOR = color.get();
+        if (!COLOR.equals(paintedColor)) {
+            paintedColor = COLOR;
+            darkerColor  = COLOR.darker();
+            darkestColor = darkerColor.darker();
+            if (!bezelBack.isVisible()) { pane.setBackground(new Background(new BackgroundFill(darkerColor, new CornerRadii(1024), Insets.EMPTY))); }
+            mainCircle.setFill(darkestColor);
+            ring.setFill(COLOR);
+            innerRing.setFill(COLOR);
+            buttonOn.setStroke(COLOR);
+            buttonOff.setStroke(COLOR);
+            updateBezel();
+        }
         textOn.setFill(textColor.get());
         textOff.setFill(textColor.get());
-        indicator.setFill(isSelected() ? indicatorColor.get() : color.get().darker());
-        indicator.setStroke(isSelected() ? indicatorColor.get().darker().darker() : color.get().darker().darker());
-        rotate(targetValue.get());
+        if (isSelected()) {
+            indicator.setFill(indicatorColor.get());
+            indicator.setStroke(indicatorColor.get().darker().darker());
+            indicator.setEffect(indicatorGlow);
+        } else {
+            indicator.setFill(darkerColor);
+            indicator.setStroke(darkestColor);
+            indicator.setEffect(null);
+        }
     }
 
 
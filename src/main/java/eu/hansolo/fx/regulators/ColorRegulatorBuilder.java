@@ -33,6 +33,7 @@ import javafx.geometry.Insets;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.Stop;
+import javafx.util.Duration;
 
 import java.util.HashMap;
 import java.util.List;
@@ -119,6 +120,36 @@ public class ColorRegulatorBuilder<B extends ColorRegulatorBuilder<B>> {
         return (B)this;
     }
 
+    public final B asyncRendering(final boolean ASYNC) {
+        properties.put("asyncRendering", new SimpleBooleanProperty(ASYNC));
+        return (B)this;
+    }
+
+    public final B mipmapping(final boolean MIPMAPPING) {
+        properties.put("mipmapping", new SimpleBooleanProperty(MIPMAPPING));
+        return (B)this;
+    }
+
+    public final B segmentedBar(final boolean SEGMENTED) {
+        properties.put("segmentedBar", new SimpleBooleanProperty(SEGMENTED));
+        return (B)this;
+    }
+
+    public final B bakedBezel(final boolean BAKED) {
+        properties.put("bakedBezel", new SimpleBooleanProperty(BAKED));
+        return (B)this;
+    }
+
+    public final B refinementDelay(final Duration DELAY) {
+        properties.put("refinementDelay", new SimpleObjectProperty<>(DELAY));
+        return (B)this;
+    }
+
+    public final B storageMode(final ConicalGradient.StorageMode MODE) {
+        properties.put("storageMode", new SimpleObjectProperty<>(MODE));
+        return (B)this;
+    }
+
     public final B prefSize(final double WIDTH, final double HEIGHT) {
         properties.put("prefSize", new SimpleObjectProperty<>(new Dimension2D(WIDTH, HEIGHT)));
         return (B)this;
@@ -237,6 +268,18 @@ public class ColorRegulatorBuilder<B extends ColorRegulatorBuilder<B>> {
                 CONTROL.setTranslateY(((DoubleProperty) properties.get(key)).get());
             } else if ("padding".equals(key)) {
                 CONTROL.setPadding(((ObjectProperty<Insets>) properties.get(key)).get());
+            } else if ("asyncRendering".equals(key)) {
+                CONTROL.setAsyncRendering(((BooleanProperty) properties.get(key)).get());
+            } else if ("mipmapping".equals(key)) {
+                CONTROL.setMipmapping(((BooleanProperty) properties.get(key)).get());
+            } else if ("segmentedBar".equals(key)) {
+                CONTROL.setSegmentedBar(((BooleanProperty) properties.get(key)).get());
+            } else if ("bakedBezel".equals(key)) {
+                CONTROL.setBakedBezel(((BooleanProperty) properties.get(key)).get());
+            } else if ("refinementDelay".equals(key)) {
+                CONTROL.setRefinementDelay(((ObjectProperty<Duration>) properties.get(key)).get());
+            } else if ("storageMode".equals(key)) {
+                CONTROL.setStorageMode(((ObjectProperty<ConicalGradient.StorageMode>) properties.get(key)).get());
             } else if ("targetValue".equals(key)) {
                 CONTROL.setTargetValue(((DoubleProperty) properties.get(key)).get());
             } else if ("targetColor".equals(key)) {
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.regulators;
+
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Stop;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Immutable list of gradient stops that is made of the offsets in ascending order
+ * and the colors packed as non premultiplied ARGB ints. Instances can be shared
+ * between threads and used as keys in hash based collections. All operations
+ * return new instances and never touch the original one.
+ */
+public final class CompiledStops {
+    public static final CompiledStops EMPTY = new CompiledStops(new double[0], new int[0]);
+    private final double[]            offsets;
+    private final int[]               colors;
+    private final int                 hashCode;
+    private volatile List<Stop>       stops;
+
+
+    // ******************** Constructors **************************************
+    private CompiledStops(final double[] OFFSETS, final int[] COLORS) {
+        offsets  = OFFSETS;
+        colors   = COLORS;
+        hashCode = 31 * Arrays.hashCode(offsets) + Arrays.hashCode(colors);
+    }
+
+
+    // ******************** Methods *******************************************
+    public static CompiledStops of(final Stop... STOPS) { return of(Arrays.asList(STOPS)); }
+    /**
+     * Compiles the given stops. The stops will be sorted by their offset, if more than
+     * one stop has the same offset the last one wins.
+     * @param STOPS the stops in any order
+     * @return the compiled stops
+     */
+    public static CompiledStops of(final List<Stop> STOPS) {
+        if (null == STOPS || STOPS.isEmpty()) return EMPTY;
+        final int      SIZE    = STOPS.size();
+        final double[] OFFSETS = new double[SIZE];
+        final int[]    COLORS  = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            OFFSETS[i] = STOPS.get(i).getOffset();
+            COLORS[i]  = toArgb(STOPS.get(i).getColor());
+        }
+        return sortAndMerge(OFFSETS, COLORS, SIZE);
+    }
+
+    public int size() { return offsets.length; }
+    public boolean isEmpty() { return offsets.length == 0; }
+
+    public double getOffset(final int INDEX) { return offsets[INDEX]; }
+    public int getArgb(final int INDEX) { return colors[INDEX]; }
+    public Color getColor(final int INDEX) { return toColor(colors[INDEX]); }
+
+    public List<Stop> getStops() {
+        List<Stop> result = stops;
+        if (null == result) {
+            List<Stop> list = new ArrayList<>(offsets.length);
+            for (int i = 0; i < offsets.length; i++) { list.add(new Stop(offsets[i], toColor(colors[i]))); }
+            result = Collections.unmodifiableList(list);
+            stops  = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the color at the given position as ARGB int. Between two stops the color
+     * will be interpolated linearly, positions outside of the stops get the color of
+     * the last stop.
+     * @param POSITION position between 0 and 1
+     * @return the color at the given position as non premultiplied ARGB int
+     */
+    public int getArgbAt(final double POSITION) {
+        if (offsets.length == 0) return 0x00000000;
+        final int LAST  = offsets.length - 1;
+        final int INDEX = indexOf(POSITION);
+        if (INDEX < 0 || INDEX == LAST) return colors[LAST];
+        return interpolate(colors[INDEX], colors[INDEX + 1], (POSITION - offsets[INDEX]) / (offsets[INDEX + 1] - offsets[INDEX]));
+    }
+
+    /**
+     * Adds a stop at 0 with the color of the first stop and a stop at 1 with the color
+     * of the last stop if they are missing.
+     * @return stops that cover the range from 0 to 1
+     */
+    public CompiledStops padded() {
+        if (offsets.length == 0) return this;
+        final boolean PAD_START = offsets[0] > 0;
+        final boolean PAD_END   = offsets[offsets.length - 1] < 1;
+        if (!PAD_START && !PAD_END) return this;
+        final int      SIZE    = offsets.length + (PAD_START ? 1 : 0) + (PAD_END ? 1 : 0);
+        final double[] OFFSETS = new double[SIZE];
+        final int[]    COLORS  = new int[SIZE];
+        final int      START   = PAD_START ? 1 : 0;
+        System.arraycopy(offsets, 0, OFFSETS, START, offsets.length);
+        System.arraycopy(colors, 0, COLORS, START, colors.length);
+        if (PAD_START) {
+            OFFSETS[0] = 0.0;
+            COLORS[0]  = colors[0];
+        }
+        if (PAD_END) {
+            OFFSETS[SIZE - 1] = 1.0;
+            COLORS[SIZE - 1]  = colors[colors.length - 1];
+        }
+        return new CompiledStops(OFFSETS, COLORS);
+    }
+
+    /**
+     * Rotates the stops by the given offset, offsets that exceed 1 wrap around. A stop
+     * that ends up exactly on 0 is kept at Double.MIN_VALUE and at 1. If there is no
+     * stop at 1 it gets the color of the first stop and if there is no stop at 0 it
+     * gets the color of the last stop, so the gradient wraps around seamlessly.
+     * @param OFFSET the offset between 0 and 1 that will be added to every stop
+     * @return the rotated stops
+     */
+    public CompiledStops rotated(final double OFFSET) {
+        if (offsets.length == 0) return this;
+        int      size       = 0;
+        double[] rotOffsets = new double[offsets.length * 2 + 2];
+        int[]    rotColors  = new int[rotOffsets.length];
+        for (int i = 0; i < offsets.length; i++) {
+            double offset = (offsets[i] + OFFSET) % 1.0;
+            if (Double.compare(offset, 0.0) == 0) {
+                rotOffsets[size]  = Double.MIN_VALUE;
+                rotColors[size++] = colors[i];
+                offset = 1.0;
+            }
+            rotOffsets[size]  = offset;
+            rotColors[size++] = colors[i];
+        }
+        CompiledStops sorted = sortAndMerge(rotOffsets, rotColors, size);
+        size = sorted.offsets.length;
+        System.arraycopy(sorted.offsets, 0, rotOffsets, 0, size);
+        System.arraycopy(sorted.colors, 0, rotColors, 0, size);
+        if (rotOffsets[size - 1] < 1) {
+            rotOffsets[size]  = 1.0;
+            rotColors[size++] = rotColors[0];
+        }
+        if (rotOffsets[0] > 0) {
+            System.arraycopy(rotOffsets, 0, rotOffsets, 1, size);
+            System.arraycopy(rotColors, 0, rotColors, 1, size);
+            rotOffsets[0] = 0.0;
+            rotColors[0]  = rotColors[size++];
+        }
+        return new CompiledStops(Arrays.copyOf(rotOffsets, size), Arrays.copyOf(rotColors, size));
+    }
+
+    /**
+     * Mirrors the stops, a stop at offset x will be moved to 1 - x.
+     * @return the mirrored stops
+     */
+    public CompiledStops reversed() {
+        final int      SIZE    = offsets.length;
+        final double[] OFFSETS = new double[SIZE];
+        final int[]    COLORS  = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            OFFSETS[i] = 1.0 - offsets[SIZE - 1 - i];
+            COLORS[i]  = colors[SIZE - 1 - i];
+        }
+        return new CompiledStops(OFFSETS, COLORS);
+    }
+
+    /**
+     * Compresses the padded stops into a range of the given size that is centered
+     * around 0 (e.g. 1.0 -> 0.5 - RANGE / 2 and 0.0 -> 0.5 + RANGE / 2 for a range of
+     * 0.778), which maps the stops onto the bar of a regulator that starts at the
+     * bottom left and ends at the bottom right.
+     * @param RANGE the size of the range between 0 and 1
+     * @return the compressed stops
+     */
+    public CompiledStops centered(final double RANGE) {
+        final CompiledStops PADDED     = padded();
+        final double        HALF_RANGE = RANGE * 0.5;
+        final int           SIZE       = PADDED.offsets.length;
+        final double[]      OFFSETS    = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            double offset = PADDED.offsets[i] * RANGE - HALF_RANGE;
+            OFFSETS[i] = offset < 0 ? 1.0 + offset : offset;
+        }
+        return sortAndMerge(OFFSETS, PADDED.colors.clone(), SIZE);
+    }
+
+    // Index of the last stop with an offset <= POSITION, -1 if POSITION is smaller than the first offset
+    private int indexOf(final double POSITION) {
+        int low  = 0;
+        int high = offsets.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (offsets[mid] <= POSITION) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    // Sorts the stops by offset (stable insertion sort, there are only a few stops), of stops with the same offset the last one wins
+    private static CompiledStops sortAndMerge(final double[] OFFSETS, final int[] COLORS, final int SIZE) {
+        final double[] SORTED_OFFSETS = new double[SIZE];
+        final int[]    SORTED_COLORS  = new int[SIZE];
+        int count = 0;
+        for (int i = 0; i < SIZE; i++) {
+            double offset = OFFSETS[i];
+            int    index  = count;
+            while (index > 0 && Double.compare(SORTED_OFFSETS[index - 1], offset) > 0) { index--; }
+            if (index > 0 && Double.compare(SORTED_OFFSETS[index - 1], offset) == 0) {
+                SORTED_COLORS[index - 1] = COLORS[i];
+                continue;
+            }
+            System.arraycopy(SORTED_OFFSETS, index, SORTED_OFFSETS, index + 1, count - index);
+            System.arraycopy(SORTED_COLORS, index, SORTED_COLORS, index + 1, count - index);
+            SORTED_OFFSETS[index] = offset;
+            SORTED_COLORS[index]  = COLORS[i];
+            count++;
+        }
+        return new CompiledStops(count == SIZE ? SORTED_OFFSETS : Arrays.copyOf(SORTED_OFFSETS, count),
+                                 count == SIZE ? SORTED_COLORS  : Arrays.copyOf(SORTED_COLORS, count));
+    }
+
+    static int interpolate(final int FROM, final int TO, final double FRACTION) {
+        final double F = FRACTION < 0 ? 0 : (FRACTION > 1 ? 1 : FRACTION);
+        return (interpolateChannel(FROM >>> 24, TO >>> 24, F) << 24) |
+               (interpolateChannel((FROM >> 16) & 0xFF, (TO >> 16) & 0xFF, F) << 16) |
+               (interpolateChannel((FROM >> 8) & 0xFF, (TO >> 8) & 0xFF, F) << 8) |
+                interpolateChannel(FROM & 0xFF, TO & 0xFF, F);
+    }
+    private static int interpolateChannel(final int FROM, final int TO, final double FRACTION) {
+        return (int) Math.round(FROM + (TO - FROM) * FRACTION);
+    }
+
+    static int toArgb(final Color COLOR) {
+        return ((int) Math.round(COLOR.getOpacity() * 255) << 24) |
+               ((int) Math.round(COLOR.getRed()     * 255) << 16) |
+               ((int) Math.round(COLOR.getGreen()   * 255) << 8)  |
+                (int) Math.round(COLOR.getBlue()    * 255);
+    }
+
+    static Color toColor(final int ARGB) {
+        return Color.rgb((ARGB >> 16) & 0xFF, (ARGB >> 8) & 0xFF, ARGB & 0xFF, (ARGB >>> 24) / 255.0);
+    }
+
+    @Override public boolean equals(final Object OBJECT) {
+        if (this == OBJECT) return true;
+        if (!(OBJECT instanceof CompiledStops)) return false;
+        CompiledStops compiledStops = (CompiledStops) OBJECT;
+        return hashCode == compiledStops.hashCode && Arrays.equals(offsets, compiledStops.offsets) && Arrays.equals(colors, compiledStops.colors);
+    }
+
+    @Override public int hashCode() { return hashCode; }
+
+    @Override public String toString() { return getStops().toString(); }
+}
@@ -16,10 +16,12 @@
 
 package eu.hansolo.fx.regulators;
 
-import javafx.animation.Interpolator;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.PixelWriter;
 import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
@@ -27,16 +29,20 @@ import javafx.scene.paint.ImagePattern;
 import javafx.scene.paint.Stop;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.shape.Shape;
+import javafx.util.Duration;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 
 /**
@@ -44,14 +50,51 @@ import java.util.TreeSet;
  */
 public class ConicalGradient {
     public enum ScaleDirection { CLOCKWISE, COUNTER_CLOCKWISE }
-    private static final double ANGLE_FACTOR = 1.0 / 360.0;
-    private double              centerX;
-    private double              centerY;
-    private List<Stop>          sortedStops;
-    private ScaleDirection      scaleDirection;
-    private WritableImage       rectRaster;
-    private WritableImage       roundRaster;
-
+    public enum RasterMode { SEQUENTIAL, PARALLEL }
+    /**
+     * Defines what a gradient keeps in memory between two requests of the same raster.
+     * FULL keeps every raster and shares it through the RasterCache (rasters with a
+     * phase other than 0 are kept but not shared). RING_ONLY only keeps the ring
+     * rasters, rectangular and round rasters are rendered on every request. INDEXED keeps an 8 bit index per pixel into a palette that is derived
+     * from the color lookup table and expands it on request, the indices survive changes
+     * of the stops and the phase. RELEASE_AFTER_UPLOAD keeps nothing, the rasters are
+     * only referenced by the returned images and patterns.
+     */
+    public enum StorageMode { FULL, RING_ONLY, INDEXED, RELEASE_AFTER_UPLOAD }
+    enum RasterType { RECT, ROUND, RING }
+    private static final double                  ANGLE_FACTOR       = 1.0 / 360.0;
+    private static final int                     BAND_HEIGHT        = 16;
+    private static final int                     PARALLEL_THRESHOLD = 128 * 128;
+    private static final int                     LUT_SIZE           = 4096;
+    private static final int                     LUT_SHIFT          = AngleField.ANGLE_BITS - 12;
+    private static final double                  PHASE_FACTOR       = (1 << AngleField.ANGLE_BITS) / 360.0;
+    private static final int                     PHASE_MASK         = (1 << AngleField.ANGLE_BITS) - 1;
+    private static final int                     MIN_LEVEL_SIZE     = 32;
+    private static final int                     MAX_LEVEL_SIZE     = 2048;
+    private static final Duration                REFINEMENT_DELAY   = Duration.millis(250);
+    private static final ExecutorService         RENDER_SERVICE     = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ConicalGradientRenderer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private double                               centerX;
+    private double                               centerY;
+    private CompiledStops                        stops;
+    private int[]                                lut;
+    private double                               phase;
+    private int                                  phaseShift;
+    private ScaleDirection                       scaleDirection;
+    private RasterMode                           rasterMode;
+    private StorageMode                          storageMode;
+    private double                               renderScale;
+    private final Slot                           rectSlot;
+    private final Slot                           roundSlot;
+    private final Slot                           ringSlot;
+    private final Slot                           levelSlot;
+    private CompletableFuture<WritableImage>     pendingRing;
+    private int[]                                scratch;
+    private Duration                             refinementDelay;
+    private PauseTransition                      refinement;
 
     // ******************** Constructors **************************************
     public ConicalGradient() {
@@ -63,6 +106,9 @@ public class ConicalGradient {
     public ConicalGradient(final List<Stop> STOPS) {
         this(0, 0, 0, ScaleDirection.CLOCKWISE, STOPS);
     }
+    public ConicalGradient(final CompiledStops STOPS) {
+        this(0, 0, 0, ScaleDirection.CLOCKWISE, STOPS);
+    }
     public ConicalGradient(final double CENTER_X, final double CENTER_Y, final Stop... STOPS) { this(CENTER_X, CENTER_Y, ScaleDirection.CLOCKWISE, STOPS); }
     public ConicalGradient(final double CENTER_X, final double CENTER_Y, final ScaleDirection DIRECTION, final Stop... STOPS) {
         this(CENTER_X, CENTER_Y, 0.0, DIRECTION, Arrays.asList(STOPS));
@@ -74,22 +120,57 @@ public class ConicalGradient {
         this(CENTER_X, CENTER_Y, OFFSET, DIRECTION, Arrays.asList(STOPS));
     }
     public ConicalGradient(final double CENTER_X, final double CENTER_Y, final double OFFSET, final ScaleDirection DIRECTION, final List<Stop> STOPS) {
-        centerX        = CENTER_X;
-        centerY        = CENTER_Y;
-        scaleDirection = DIRECTION;
-        sortedStops    = normalizeStops(OFFSET, STOPS);
+        this(CENTER_X, CENTER_Y, OFFSET, DIRECTION, CompiledStops.of(STOPS));
+    }
+    public ConicalGradient(final double CENTER_X, final double CENTER_Y, final double OFFSET, final ScaleDirection DIRECTION, final CompiledStops STOPS) {
+        centerX         = CENTER_X;
+        centerY         = CENTER_Y;
+        scaleDirection  = DIRECTION;
+        rasterMode      = RasterMode.PARALLEL;
+        storageMode     = StorageMode.FULL;
+        renderScale     = 1.0;
+        rectSlot        = new Slot();
+        roundSlot       = new Slot();
+        ringSlot        = new Slot();
+        levelSlot       = new Slot();
+        refinementDelay = REFINEMENT_DELAY;
+        stops           = normalizeStops(OFFSET, STOPS);
+        lut             = compileLut(stops);
     }
 
 
     // ******************** Methods *******************************************
     public void recalculateWithAngle(final double ANGLE) {
         double angle = ANGLE % 360.0;
-        sortedStops  = calculate(sortedStops, ANGLE_FACTOR * angle);
-        rectRaster   = null;
-        roundRaster  = null;
+        stops        = stops.rotated(ANGLE_FACTOR * angle);
+        lut          = compileLut(stops);
+        invalidateRasters();
     }
 
-    public List<Stop> getStops() { return sortedStops; }
+    /**
+     * The phase rotates the gradient clockwise by the given angle in degrees.
+     * In contrast to recalculateWithAngle() the stops and the color lookup table
+     * stay untouched, the phase is only applied as an index shift when reading
+     * the lookup table. Every new phase step still needs a new raster, ring rasters
+     * only render the pixels of the annulus. Rasters with a phase other than 0 are
+     * kept by this gradient but not shared through the RasterCache, so an animation
+     * doesn't flood the cache and evict the rasters of other gradients. To rotate a
+     * gradient without any rendering per frame, rotate the node that shows it.
+     * @param PHASE rotation of the gradient in degrees
+     */
+    public void setPhase(final double PHASE) {
+        double phase = PHASE % 360.0;
+        phase = phase < 0 ? phase + 360.0 : phase;
+        int shift = (int) Math.round(phase * PHASE_FACTOR) & PHASE_MASK;
+        this.phase = phase;
+        if (shift == phaseShift) return;
+        phaseShift = shift;
+        invalidateRasters();
+    }
+    public double getPhase() { return phase; }
+
+    public List<Stop> getStops() { return stops.getStops(); }
+    public CompiledStops getCompiledStops() { return stops; }
     public void setStops(final Stop... STOPS) {
         setStops(Arrays.asList(STOPS));
     }
@@ -100,99 +181,196 @@ public class ConicalGradient {
         setStops(0 ,STOPS);
     }
     public void setStops(final double OFFSET, final List<Stop> STOPS) {
-        sortedStops = normalizeStops(OFFSET, STOPS);
-        rectRaster  = null;
-        roundRaster = null;
+        setStops(OFFSET, CompiledStops.of(STOPS));
+    }
+    public void setStops(final CompiledStops STOPS) {
+        setStops(0, STOPS);
+    }
+    public void setStops(final double OFFSET, final CompiledStops STOPS) {
+        stops = normalizeStops(OFFSET, STOPS);
+        lut   = compileLut(stops);
+        invalidateRasters();
     }
 
     public double[] getCenter() { return new double[]{ centerX, centerY }; }
     public Point2D getCenterPoint() { return new Point2D(centerX, centerY); }
 
+    /**
+     * Returns the color the rasters use for pixels at the given angle, which makes it
+     * possible to draw the gradient with vector shapes instead of images.
+     * @param ANGLE angle in degrees, clockwise from 12 o'clock
+     * @return the color at the given angle as non premultiplied ARGB int
+     */
+    public int getArgbAtAngle(final double ANGLE) {
+        double angle = ANGLE % 360.0;
+        angle = angle < 0 ? angle + 360.0 : angle;
+        return lut[(((int) (angle * PHASE_FACTOR) - phaseShift) & PHASE_MASK) >>> LUT_SHIFT];
+    }
+    public Color getColorAtAngle(final double ANGLE) { return CompiledStops.toColor(getArgbAtAngle(ANGLE)); }
+
+    public RasterMode getRasterMode() { return rasterMode; }
+    public void setRasterMode(final RasterMode MODE) { rasterMode = null == MODE ? RasterMode.SEQUENTIAL : MODE; }
+
+    public StorageMode getStorageMode() { return storageMode; }
+    public void setStorageMode(final StorageMode MODE) {
+        final StorageMode MODE_TO_SET = null == MODE ? StorageMode.FULL : MODE;
+        if (MODE_TO_SET == storageMode) return;
+        storageMode = MODE_TO_SET;
+        invalidateRasters();
+        for (Slot slot : new Slot[] { rectSlot, roundSlot, ringSlot, levelSlot }) { slot.clearIndices(); }
+    }
+
+    /**
+     * Returns the number of bytes that are kept alive by this gradient, which are the
+     * color lookup table, the rasters (rasters that are shared through the RasterCache
+     * are counted completely), the indices of the INDEXED storage mode and the pixel
+     * array that is reused by renderInto(WritableImage). Images that have been handed
+     * out but are not retained by the gradient are not counted.
+     * @return the number of bytes that are retained by this gradient
+     */
+    public long getRetainedBytes() {
+        long bytes = lut.length * 4L + (null == scratch ? 0 : scratch.length * 4L);
+        for (Slot slot : new Slot[] { rectSlot, roundSlot, ringSlot, levelSlot }) { bytes += slot.getRetainedBytes(); }
+        return bytes;
+    }
+
+    public double getRenderScale() { return renderScale; }
+    /**
+     * Defines the number of physical pixels per logical pixel of the screen the patterns
+     * will be shown on (e.g. 2.0 on a 2x HiDPI screen). The pattern methods render their
+     * rasters at the physical resolution and scale them back to the given bounds, so they
+     * are neither blurry nor upsampled. The scale is part of the RasterCache key, so each
+     * physical resolution will be rendered once and shared.
+     * @param SCALE the output scale of the screen, values <= 0 will be treated as 1
+     */
+    public void setRenderScale(final double SCALE) { renderScale = SCALE > 0 ? SCALE : 1.0; }
+
+    public Duration getRefinementDelay() { return refinementDelay; }
+    /**
+     * Defines how long getMipmapRingImagePattern() has to be idle before the exact
+     * raster will be rendered.
+     * @param DELAY the idle time before the exact raster will be rendered
+     */
+    public void setRefinementDelay(final Duration DELAY) { refinementDelay = null == DELAY ? REFINEMENT_DELAY : DELAY; }
+
     public Image getImage(final double WIDTH, final double HEIGHT) {
         int width  = (int) WIDTH  <= 0 ? 100 : (int) WIDTH;
         int height = (int) HEIGHT <= 0 ? 100 : (int) HEIGHT;
 
-        if (rectRaster != null && width == rectRaster.getWidth() && height == rectRaster.getHeight()) return rectRaster;
-
-        Color color = Color.TRANSPARENT;
-        rectRaster  = new WritableImage(width, height);
-        final PixelWriter PIXEL_WRITER = rectRaster.getPixelWriter();
         if (Double.compare(0.0, centerX) == 0) centerX = width * 0.5;
         if (Double.compare(0.0, centerY) == 0) centerY = height * 0.5;
-
-        int calculatedStopsLength = sortedStops.size() - 1;
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                double dx       = x - centerX;
-                double dy       = y - centerY;
-                double distance = Math.sqrt((dx * dx) + (dy * dy));
-                distance = Double.compare(distance, 0) == 0 ? 1 : distance;
-
-                double angle = adjustAngle(dx, dy, Math.abs(Math.toDegrees(Math.acos(dx / distance))));
-
-                for (int i = 0; i < calculatedStopsLength; i++) {
-                    double offsetI      = (sortedStops.get(i).getOffset() * 360.0);
-                    double offsetIPlus1 = (sortedStops.get(i + 1).getOffset() * 360.0);
-                    if (Double.compare(angle, offsetI) >= 0 &&
-                        Double.compare(angle, offsetIPlus1) < 0) {
-                        double fraction = (angle - offsetI) / (offsetIPlus1 - offsetI);
-                        color = (Color) Interpolator.LINEAR.interpolate(sortedStops.get(i).getColor(), sortedStops.get(i + 1).getColor(), fraction);
-                    }
-                }
-                PIXEL_WRITER.setColor(x, y, color);
-            }
-        }
-        return rectRaster;
+        return acquire(rectSlot, createRasterizer(), width, height, RasterType.RECT, 0, 0);
     }
     public Image getRoundImage(final double SIZE) {
         int size  = (int) SIZE  <= 0 ? 100 : (int) SIZE;
 
-        if (roundRaster != null && size == roundRaster.getWidth()) return roundRaster;
+        if (Double.compare(0.0, centerX) == 0) centerX = size * 0.5;
+        if (Double.compare(0.0, centerY) == 0) centerY = size * 0.5;
+        return acquire(roundSlot, createRasterizer(), size, size, RasterType.ROUND, 0, 0);
+    }
+    /**
+     * Same as getImage(WIDTH, HEIGHT) but the calling thread doesn't wait for the
+     * rasterization. The raster is loaded from the RasterCache or rendered on a
+     * background thread and handed to the FX application thread, which only puts it
+     * into the cache. Must be called on the FX application thread.
+     * @param WIDTH width of the raster
+     * @param HEIGHT height of the raster
+     * @return a future that is completed on the FX application thread with the raster
+     */
+    public CompletableFuture<Image> getImageAsync(final double WIDTH, final double HEIGHT) {
+        int width  = (int) WIDTH  <= 0 ? 100 : (int) WIDTH;
+        int height = (int) HEIGHT <= 0 ? 100 : (int) HEIGHT;
+
+        if (Double.compare(0.0, centerX) == 0) centerX = width * 0.5;
+        if (Double.compare(0.0, centerY) == 0) centerY = height * 0.5;
+        return acquireAsync(rectSlot, createRasterizer(), width, height, RasterType.RECT);
+    }
+    /**
+     * Same as getRoundImage(SIZE) but the raster is rendered on a background thread,
+     * see getImageAsync(WIDTH, HEIGHT). Must be called on the FX application thread.
+     * @param SIZE width and height of the raster
+     * @return a future that is completed on the FX application thread with the raster
+     */
+    public CompletableFuture<Image> getRoundImageAsync(final double SIZE) {
+        int size  = (int) SIZE  <= 0 ? 100 : (int) SIZE;
 
-        Color color = Color.TRANSPARENT;
-        roundRaster = new WritableImage(size, size);
-        final PixelWriter   PIXEL_WRITER = roundRaster.getPixelWriter();
         if (Double.compare(0.0, centerX) == 0) centerX = size * 0.5;
         if (Double.compare(0.0, centerY) == 0) centerY = size * 0.5;
-        double radius                = size * 0.5;
-        int    calculatedStopsLength = sortedStops.size() - 1;
-        for (int y = 0; y < size; y++) {
-            for (int x = 0; x < size; x++) {
-                double dx       = x - centerX;
-                double dy       = y - centerY;
-                double distance = Math.sqrt((dx * dx) + (dy * dy));
-                distance = Double.compare(distance, 0) == 0 ? 1 : distance;
-
-                double angle         = adjustAngle(dx, dy, Math.abs(Math.toDegrees(Math.acos(dx / distance))));
-                double radiusMinus05 = radius - 0.25;
-                double radiusMinus10 = radius - 0.5;
-                double radiusMinus15 = radius - 1.0;
-                double radiusMinus20 = radius - 1.5;
-
-                if (distance > radius) {
-                    color = Color.TRANSPARENT;
-                } else {
-                    for (int i = 0; i < calculatedStopsLength; i++) {
-                        if (angle >= (sortedStops.get(i).getOffset() * 360) && angle < (sortedStops.get(i + 1).getOffset() * 360)) {
-                            double fraction = (angle - sortedStops.get(i).getOffset() * 360) / ((sortedStops.get(i + 1).getOffset() - sortedStops.get(i).getOffset()) * 360);
-                            color = (Color) Interpolator.LINEAR.interpolate(sortedStops.get(i).getColor(), sortedStops.get(i + 1).getColor(), fraction);
-
-                            if (distance > radiusMinus05) {
-                                color = color.deriveColor(0.0, 1.0, 1.0, 0.25);
-                            } else if (distance > radiusMinus10) {
-                                color = color.deriveColor(0.0, 1.0, 1.0, 0.45);
-                            } else if (distance > radiusMinus15) {
-                                color = color.deriveColor(0.0, 1.0, 1.0, 0.65);
-                            } else if (distance > radiusMinus20) {
-                                color = color.deriveColor(0.0, 1.0, 1.0, 0.85);
-                            }
-                        }
-                    }
-                }
-                PIXEL_WRITER.setColor(x, y, color);
-            }
-        }
-        return roundRaster;
+        return acquireAsync(roundSlot, createRasterizer(), size, size, RasterType.ROUND);
+    }
+    /**
+     * Returns a raster that only contains the gradient within the annulus between
+     * the given radii around the center, all other pixels are transparent. Only the
+     * pixels inside the annulus are touched, which makes it the cheapest raster to
+     * paint strokes of arcs and circles. The edges of the annulus are not anti-aliased
+     * so the radii should enclose the painted stroke with a margin of one pixel.
+     * @param SIZE width and height of the raster
+     * @param INNER_RADIUS inner radius of the annulus in pixels
+     * @param OUTER_RADIUS outer radius of the annulus in pixels
+     * @return square raster that only contains the gradient within the annulus
+     */
+    public Image getRingImage(final double SIZE, final double INNER_RADIUS, final double OUTER_RADIUS) {
+        int    size  = (int) SIZE <= 0 ? 100 : (int) SIZE;
+        double inner = clamp(0.0, size, Math.min(INNER_RADIUS, OUTER_RADIUS));
+        double outer = clamp(0.0, size, Math.max(INNER_RADIUS, OUTER_RADIUS));
+
+        cancelPendingRing();
+        if (Double.compare(0.0, centerX) == 0) centerX = size * 0.5;
+        if (Double.compare(0.0, centerY) == 0) centerY = size * 0.5;
+        return acquire(ringSlot, createRasterizer(), size, size, RasterType.RING, inner, outer);
+    }
+
+    /**
+     * Renders the rectangular gradient as non premultiplied ARGB into the given array.
+     * The pixel (x, y) will be written to DST[OFFSET + y * STRIDE + x], all other
+     * elements of the array stay untouched. If no center was set, the center of the
+     * given area will be used.
+     * @param DST array that receives the pixels
+     * @param OFFSET index of the top left pixel in the array
+     * @param STRIDE distance between two rows in the array in pixels
+     * @param WIDTH width of the area in pixels
+     * @param HEIGHT height of the area in pixels
+     */
+    public void renderInto(final int[] DST, final int OFFSET, final int STRIDE, final int WIDTH, final int HEIGHT) {
+        checkBounds(DST.length, OFFSET, STRIDE, WIDTH, HEIGHT);
+        createRasterizer(WIDTH, HEIGHT).renderInto(DST, OFFSET, STRIDE, WIDTH, HEIGHT, RasterType.RECT, 0, 0, true);
+    }
+    /**
+     * Same as renderInto(int[], ...) for an IntBuffer. The position and the limit of the
+     * buffer are ignored and stay untouched, OFFSET is an absolute index. Heap buffers are
+     * written directly, direct buffers are written row by row.
+     */
+    public void renderInto(final IntBuffer DST, final int OFFSET, final int STRIDE, final int WIDTH, final int HEIGHT) {
+        checkBounds(DST.capacity(), OFFSET, STRIDE, WIDTH, HEIGHT);
+        createRasterizer(WIDTH, HEIGHT).renderInto(DST, OFFSET, STRIDE, WIDTH, HEIGHT);
+    }
+    /**
+     * Renders the rectangular gradient as premultiplied BGRA bytes (4 bytes per pixel)
+     * into the given buffer. This is the format of the JavaFX PixelBuffer, so on JavaFX
+     * versions that provide it a direct ByteBuffer can be wrapped in a PixelBuffer and
+     * shown in a WritableImage without any conversion. OFFSET and STRIDE are given in
+     * pixels, the position and the limit of the buffer are ignored and stay untouched.
+     */
+    public void renderInto(final ByteBuffer DST, final int OFFSET, final int STRIDE, final int WIDTH, final int HEIGHT) {
+        checkBounds(DST.capacity() / 4, OFFSET, STRIDE, WIDTH, HEIGHT);
+        ByteBuffer buffer = DST.duplicate();
+        buffer.clear();
+        createRasterizer(WIDTH, HEIGHT).premultiplied().renderInto(buffer.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer(), OFFSET, STRIDE, WIDTH, HEIGHT);
+    }
+    /**
+     * Renders the rectangular gradient into the given image instead of creating a new
+     * one. The pixel array that is used for the upload will be reused by the following
+     * calls. Must be called on the FX application thread if the image is shown.
+     * @param IMAGE image that receives the gradient
+     * @return the given image
+     */
+    public WritableImage renderInto(final WritableImage IMAGE) {
+        final int WIDTH  = (int) IMAGE.getWidth();
+        final int HEIGHT = (int) IMAGE.getHeight();
+        if (null == scratch || scratch.length < WIDTH * HEIGHT) { scratch = new int[WIDTH * HEIGHT]; }
+        createRasterizer(WIDTH, HEIGHT).renderInto(scratch, 0, WIDTH, WIDTH, HEIGHT, RasterType.RECT, 0, 0, true);
+        IMAGE.getPixelWriter().setPixels(0, 0, WIDTH, HEIGHT, PixelFormat.getIntArgbInstance(), scratch, 0, WIDTH);
+        return IMAGE;
     }
 
     public ImagePattern apply(final Shape SHAPE) {
@@ -200,9 +378,9 @@ public class ConicalGradient {
         double y      = SHAPE.getLayoutBounds().getMinY();
         double width  = SHAPE.getLayoutBounds().getWidth();
         double height = SHAPE.getLayoutBounds().getHeight();
-        centerX       = width * 0.5;
-        centerY       = height * 0.5;
-        return new ImagePattern(getImage(width, height), x, y, width, height, false);
+        centerX       = width * renderScale * 0.5;
+        centerY       = height * renderScale * 0.5;
+        return new ImagePattern(getImage(width * renderScale, height * renderScale), x, y, width, height, false);
     }
 
     public ImagePattern getImagePattern(final Bounds BOUNDS) {
@@ -213,97 +391,278 @@ public class ConicalGradient {
         double y      = BOUNDS.getY();
         double width  = BOUNDS.getWidth();
         double height = BOUNDS.getHeight();
-        centerX       = width * 0.5;
-        centerY       = height * 0.5;
-        return new ImagePattern(getImage(width, height), x, y, width, height, false);
-    }
-
-    private double adjustAngle(final double DX, final double DY, double angle) {
-        if (Double.compare(DX, 0) >= 0 && Double.compare(DY, 0) <= 0) {
-            angle = 90.0 - angle;   // Upper Right Quadrant
-        } else if (Double.compare(DX, 0) >= 0 && Double.compare(DY, 0) >= 0) {
-            angle += 90.0;          // Lower Right Quadrant
-        } else if (Double.compare(DX, 0) <= 0 && Double.compare(DY, 0) >= 0) {
-            angle += 90.0;          // Lower Left Quadrant
-        } else if (Double.compare(DX, 0) <= 0 && Double.compare(DY, 0) <= 0) {
-            angle = 450.0 - angle;  // Upper Left Qudrant
-        }
+        centerX       = width * renderScale * 0.5;
+        centerY       = height * renderScale * 0.5;
+        return new ImagePattern(getImage(width * renderScale, height * renderScale), x, y, width, height, false);
+    }
 
-        /*
-        if (DX >= 0 && DY <= 0) {
-            angle = 90.0 - angle;   // Upper Right Quadrant
-        } else if (DX >= 0 && DY >= 0) {
-            angle += 90.0;          // Lower Right Quadrant
-        } else if (DX <= 0 && DY >= 0) {
-            angle += 90.0;          // Lower Left Quadrant
-        } else if (DX <= 0 && DY <= 0) {
-            angle = 450.0 - angle;  // Upper Left Qudrant
+    public ImagePattern getRingImagePattern(final Rectangle BOUNDS, final double INNER_RADIUS, final double OUTER_RADIUS) {
+        double x      = BOUNDS.getX();
+        double y      = BOUNDS.getY();
+        double size   = Math.min(BOUNDS.getWidth(), BOUNDS.getHeight());
+        centerX       = size * renderScale * 0.5;
+        centerY       = size * renderScale * 0.5;
+        return new ImagePattern(getRingImage(size * renderScale, INNER_RADIUS * renderScale, OUTER_RADIUS * renderScale), x, y, size, size, false);
+    }
+    /**
+     * Same as getRingImagePattern(BOUNDS, INNER_RADIUS, OUTER_RADIUS) but the calling
+     * thread doesn't wait for the rasterization. If the requested raster is neither
+     * available in this gradient nor in the RasterCache, the last ring raster scaled
+     * to the new bounds is returned as a placeholder and the new raster is rendered
+     * on a background thread. As soon as it is ready ON_RENDERED will be called on the
+     * FX application thread with the exact pattern. Each call cancels a rendering that
+     * is still pending, so only the raster for the latest bounds will be delivered.
+     * @param BOUNDS bounds of the pattern
+     * @param INNER_RADIUS inner radius of the annulus in pixels
+     * @param OUTER_RADIUS outer radius of the annulus in pixels
+     * @param ON_RENDERED called on the FX application thread with the exact pattern
+     * @return the exact pattern if available, otherwise the placeholder pattern
+     */
+    public ImagePattern getRingImagePattern(final Rectangle BOUNDS, final double INNER_RADIUS, final double OUTER_RADIUS, final Consumer<ImagePattern> ON_RENDERED) {
+        final WritableImage PLACEHOLDER = ringSlot.peek();
+        if (null == PLACEHOLDER || null == ON_RENDERED) return getRingImagePattern(BOUNDS, INNER_RADIUS, OUTER_RADIUS);
+
+        final ImagePattern EXACT = requestRing(BOUNDS, INNER_RADIUS, OUTER_RADIUS, ON_RENDERED);
+        if (null != EXACT) return EXACT;
+        final double SIZE = Math.min(BOUNDS.getWidth(), BOUNDS.getHeight());
+        return new ImagePattern(PLACEHOLDER, BOUNDS.getX(), BOUNDS.getY(), SIZE, SIZE, false);
+    }
+
+    /**
+     * Meant to be called for every step while a shape is resized. Instead of rendering
+     * a raster for every intermediate size, a ring raster with the next power of two
+     * size is scaled to the given bounds. The level raster is rendered with one extra
+     * logical pixel around the annulus and reused for every following size of the level
+     * whose annulus it contains, for rings with a margin of one logical pixel (like the
+     * bars of the regulators) that is one raster per level. Other gradients share
+     * it through the RasterCache if they requested the same radii. As soon as no call
+     * happened for the refinement delay, the exact raster will be rendered and
+     * ON_REFINED will be called with the exact pattern. Must be called on the FX
+     * application thread.
+     * @param BOUNDS bounds of the pattern
+     * @param INNER_RADIUS inner radius of the annulus in pixels
+     * @param OUTER_RADIUS outer radius of the annulus in pixels
+     * @param ON_REFINED called with the exact pattern after the refinement delay
+     * @return the exact pattern if available, otherwise the scaled pattern of the nearest level
+     */
+    public ImagePattern getMipmapRingImagePattern(final Rectangle BOUNDS, final double INNER_RADIUS, final double OUTER_RADIUS, final Consumer<ImagePattern> ON_REFINED) {
+        return getMipmapRingImagePattern(BOUNDS, INNER_RADIUS, OUTER_RADIUS, false, ON_REFINED);
+    }
+    /**
+     * Same as getMipmapRingImagePattern(BOUNDS, INNER_RADIUS, OUTER_RADIUS, ON_REFINED)
+     * but if ASYNC is true, the exact raster is rendered on a background thread after
+     * the refinement delay, the level stays visible until ON_REFINED is called.
+     * @param BOUNDS bounds of the pattern
+     * @param INNER_RADIUS inner radius of the annulus in pixels
+     * @param OUTER_RADIUS outer radius of the annulus in pixels
+     * @param ASYNC true if the exact raster should be rendered on a background thread
+     * @param ON_REFINED called on the FX application thread with the exact pattern
+     * @return the exact pattern if available, otherwise the scaled pattern of the nearest level
+     */
+    public ImagePattern getMipmapRingImagePattern(final Rectangle BOUNDS, final double INNER_RADIUS, final double OUTER_RADIUS, final boolean ASYNC,
+                                                  final Consumer<ImagePattern> ON_REFINED) {
+        final double X      = BOUNDS.getX();
+        final double Y      = BOUNDS.getY();
+        final double SIZE   = Math.min(BOUNDS.getWidth(), BOUNDS.getHeight());
+        final double PIXELS = SIZE * renderScale;
+        final int    size   = (int) PIXELS <= 0 ? 100 : (int) PIXELS;
+        final int    level  = Integer.highestOneBit(Math.max(MIN_LEVEL_SIZE, size) - 1) << 1;
+        final double inner  = clamp(0.0, size, Math.min(INNER_RADIUS, OUTER_RADIUS) * renderScale);
+        final double outer  = clamp(0.0, size, Math.max(INNER_RADIUS, OUTER_RADIUS) * renderScale);
+
+        cancelPendingRing();
+        if (null == ON_REFINED || level == size || level > MAX_LEVEL_SIZE) return getRingImagePattern(BOUNDS, INNER_RADIUS, OUTER_RADIUS);
+
+        centerX = PIXELS * 0.5;
+        centerY = PIXELS * 0.5;
+        final WritableImage EXACT = getIfPresent(ringSlot, new RasterCache.Key(stops, phaseShift, size, size, centerX, centerY, RasterType.RING, inner, outer, renderScale), true);
+        if (null != EXACT) return new ImagePattern(EXACT, X, Y, SIZE, SIZE, false);
+
+        // A margin of one logical pixel covers between 1 and 2 level pixels per render scale, the padding covers the other sizes
+        final double          SCALE  = level / PIXELS;
+        final double          PAD    = Math.ceil(renderScale);
+        final RasterCache.Key NEEDED = new RasterCache.Key(stops, phaseShift, level, level, level * 0.5, level * 0.5, RasterType.RING, inner * SCALE, outer * SCALE, renderScale);
+        WritableImage levelImage = levelSlot.getCovering(NEEDED);
+        if (null == levelImage) {
+            levelImage = acquire(levelSlot, new Rasterizer(lut, phaseShift, level * 0.5, level * 0.5, RasterMode.PARALLEL == rasterMode),
+                                 level, level, RasterType.RING, Math.max(0, Math.floor(inner * SCALE) - PAD), Math.ceil(outer * SCALE) + PAD);
         }
-        */
-        return angle;
-    }
-
-    private List<Stop> calculate(final List<Stop> STOPS, final double OFFSET) {
-        List<Stop> stops = new ArrayList<>(STOPS.size());
-        final BigDecimal STEP = new BigDecimal(Double.MIN_VALUE);
-        for (Stop stop : STOPS) {
-            BigDecimal newOffsetBD = new BigDecimal(stop.getOffset() + OFFSET).remainder(BigDecimal.ONE);
-            if (newOffsetBD.equals(BigDecimal.ZERO)) {
-                newOffsetBD = BigDecimal.ONE;
-                stops.add(new Stop(Double.MIN_VALUE, stop.getColor()));
-            } else if (Double.compare((stop.getOffset() + OFFSET), 1.0) > 0) {
-                newOffsetBD = newOffsetBD.subtract(STEP);
+
+        if (null == refinement) { refinement = new PauseTransition(); }
+        refinement.setDuration(refinementDelay);
+        refinement.setOnFinished(event -> {
+            final Rectangle REFINED = new Rectangle(X, Y, SIZE, SIZE);
+            if (ASYNC) {
+                final ImagePattern REFINED_PATTERN = requestRing(REFINED, INNER_RADIUS, OUTER_RADIUS, ON_REFINED);
+                if (null != REFINED_PATTERN) { ON_REFINED.accept(REFINED_PATTERN); }
+            } else {
+                ON_REFINED.accept(getRingImagePattern(REFINED, INNER_RADIUS, OUTER_RADIUS));
             }
-            stops.add(new Stop(newOffsetBD.doubleValue(), stop.getColor()));
-        }
+            levelSlot.clear();
+            levelSlot.clearIndices();
+        });
+        refinement.playFromStart();
+        return new ImagePattern(levelImage, X, Y, SIZE, SIZE, false);
+    }
 
-        HashMap<Double, Color> stopMap = new LinkedHashMap<>(stops.size());
-        for (Stop stop : stops) { stopMap.put(stop.getOffset(), stop.getColor()); }
+    // Returns the exact pattern if it is available, otherwise null and ON_RENDERED will be called once it was rendered
+    private ImagePattern requestRing(final Rectangle BOUNDS, final double INNER_RADIUS, final double OUTER_RADIUS, final Consumer<ImagePattern> ON_RENDERED) {
+        final double X      = BOUNDS.getX();
+        final double Y      = BOUNDS.getY();
+        final double SIZE   = Math.min(BOUNDS.getWidth(), BOUNDS.getHeight());
+        final double PIXELS = SIZE * renderScale;
+        final int    size   = (int) PIXELS <= 0 ? 100 : (int) PIXELS;
+        final double inner  = clamp(0.0, size, Math.min(INNER_RADIUS, OUTER_RADIUS) * renderScale);
+        final double outer  = clamp(0.0, size, Math.max(INNER_RADIUS, OUTER_RADIUS) * renderScale);
+        centerX = PIXELS * 0.5;
+        centerY = PIXELS * 0.5;
+
+        cancelPendingRing();
+        final RasterCache.Key KEY    = new RasterCache.Key(stops, phaseShift, size, size, centerX, centerY, RasterType.RING, inner, outer, renderScale);
+        final WritableImage   EXACT  = getIfPresent(ringSlot, KEY, false);
+        if (null != EXACT) return new ImagePattern(EXACT, X, Y, SIZE, SIZE, false);
+
+        // Loading, rendering and storing happen on the render thread, the FX thread only puts the raster into the cache
+        final Rasterizer                       RASTERIZER = createRasterizer();
+        final Supplier<WritableImage>          RENDERER   = () -> RASTERIZER.render(size, size, RasterType.RING, inner, outer);
+        final boolean                          CACHED     = usesCache(RasterType.RING);
+        final CompletableFuture<WritableImage> JOB        = CompletableFuture.supplyAsync(() -> CACHED ? RasterCache.loadOrRender(KEY, RENDERER) : RENDERER.get(), RENDER_SERVICE);
+        pendingRing = JOB;
+        JOB.thenAccept(raster -> Platform.runLater(() -> {
+            if (JOB != pendingRing) return;
+            pendingRing = null;
+            final WritableImage RASTER = CACHED ? RasterCache.put(KEY, this, raster) : raster;
+            ringSlot.set(KEY, RASTER, CACHED, retains(RasterType.RING));
+            ON_RENDERED.accept(new ImagePattern(RASTER, X, Y, SIZE, SIZE, false));
+        }));
+        return null;
+    }
 
-        List<Stop>        sortedStops     = new ArrayList<>(stops.size());
-        SortedSet<Double> sortedFractions = new TreeSet<>(stopMap.keySet());
-        if (sortedFractions.last() < 1) {
-            stopMap.put(1.0, stopMap.get(sortedFractions.first()));
-            sortedFractions.add(1.0);
+    private WritableImage acquire(final Slot SLOT, final Rasterizer RASTERIZER, final int WIDTH, final int HEIGHT, final RasterType TYPE,
+                                  final double INNER_RADIUS, final double OUTER_RADIUS) {
+        final RasterCache.Key KEY   = new RasterCache.Key(stops, phaseShift, WIDTH, HEIGHT, RASTERIZER.centerX, RASTERIZER.centerY, TYPE, INNER_RADIUS, OUTER_RADIUS, renderScale);
+        WritableImage         image = SLOT.get(KEY);
+        if (null != image) return image;
+
+        final boolean CACHED = usesCache(TYPE);
+        if (CACHED) {
+            image = RasterCache.acquire(KEY, this, () -> RASTERIZER.render(WIDTH, HEIGHT, TYPE, INNER_RADIUS, OUTER_RADIUS));
+        } else if (StorageMode.INDEXED == storageMode) {
+            image = RASTERIZER.expand(SLOT.getIndices(RASTERIZER, WIDTH, HEIGHT, TYPE, INNER_RADIUS, OUTER_RADIUS), WIDTH, HEIGHT, TYPE);
+        } else {
+            image = RASTERIZER.render(WIDTH, HEIGHT, TYPE, INNER_RADIUS, OUTER_RADIUS);
         }
-        if (sortedFractions.first() > 0) {
-            stopMap.put(0.0, stopMap.get(sortedFractions.last()));
-            sortedFractions.add(0.0);
+        SLOT.set(KEY, image, CACHED, retains(TYPE));
+        return image;
+    }
+
+    private CompletableFuture<Image> acquireAsync(final Slot SLOT, final Rasterizer RASTERIZER, final int WIDTH, final int HEIGHT, final RasterType TYPE) {
+        final RasterCache.Key KEY     = new RasterCache.Key(stops, phaseShift, WIDTH, HEIGHT, RASTERIZER.centerX, RASTERIZER.centerY, TYPE, 0, 0, renderScale);
+        final WritableImage   PRESENT = getIfPresent(SLOT, KEY, false);
+        if (null != PRESENT) return CompletableFuture.completedFuture(PRESENT);
+
+        // Loading, rendering and storing happen on the render thread, the FX thread only puts the raster into the cache
+        final Supplier<WritableImage>  RENDERER = () -> RASTERIZER.render(WIDTH, HEIGHT, TYPE, 0, 0);
+        final boolean                  CACHED   = usesCache(TYPE);
+        final boolean                  RETAINED = retains(TYPE);
+        final CompletableFuture<Image> RESULT   = new CompletableFuture<>();
+        CompletableFuture.supplyAsync(() -> CACHED ? RasterCache.loadOrRender(KEY, RENDERER) : RENDERER.get(), RENDER_SERVICE)
+                         .whenComplete((raster, error) -> Platform.runLater(() -> {
+                             if (null != error) {
+                                 RESULT.completeExceptionally(error);
+                                 return;
+                             }
+                             final WritableImage IMAGE = CACHED ? RasterCache.put(KEY, this, raster) : raster;
+                             SLOT.set(KEY, IMAGE, CACHED, RETAINED);
+                             RESULT.complete(IMAGE);
+                         }));
+        return RESULT;
+    }
+
+    // Without DISK only the memory cache is asked, which never blocks on file access
+    private WritableImage getIfPresent(final Slot SLOT, final RasterCache.Key KEY, final boolean DISK) {
+        WritableImage image = SLOT.get(KEY);
+        if (null == image && usesCache(KEY.getType())) {
+            image = DISK ? RasterCache.acquireIfPresent(KEY, this) : RasterCache.acquireInMemory(KEY, this);
+            if (null != image) { SLOT.set(KEY, image, true, true); }
         }
-        for (double fraction : sortedFractions) { sortedStops.add(new Stop(fraction, stopMap.get(fraction))); }
+        return image;
+    }
 
-        return sortedStops;
+    // Rasters of a rotated phase change with every animation step, they are retained but not shared
+    private boolean usesCache(final RasterType TYPE) {
+        return retains(TYPE) && 0 == phaseShift;
     }
 
-    private List<Stop> normalizeStops(final Stop... STOPS) {
-        return normalizeStops(0, Arrays.asList(STOPS));
+    private boolean retains(final RasterType TYPE) {
+        return StorageMode.FULL == storageMode || (StorageMode.RING_ONLY == storageMode && RasterType.RING == TYPE);
     }
-    private List<Stop> normalizeStops(final double OFFSET, final Stop... STOPS) {
-        return normalizeStops(OFFSET, Arrays.asList(STOPS));
+
+    private void cancelPendingRing() {
+        if (null != refinement) { refinement.stop(); }
+        if (null == pendingRing) return;
+        pendingRing.cancel(false);
+        pendingRing = null;
     }
-    private List<Stop> normalizeStops(final List<Stop> STOPS) {
-        return normalizeStops(0, STOPS);
+
+    private void invalidateRasters() {
+        cancelPendingRing();
+        rectSlot.clear();
+        roundSlot.clear();
+        ringSlot.clear();
+        levelSlot.clear();
+    }
+
+    private Rasterizer createRasterizer() {
+        return new Rasterizer(lut, phaseShift, centerX, centerY, RasterMode.PARALLEL == rasterMode);
+    }
+    private Rasterizer createRasterizer(final int WIDTH, final int HEIGHT) {
+        return new Rasterizer(lut, phaseShift, Double.compare(0.0, centerX) == 0 ? WIDTH * 0.5 : centerX,
+                              Double.compare(0.0, centerY) == 0 ? HEIGHT * 0.5 : centerY, RasterMode.PARALLEL == rasterMode);
+    }
+
+    private static void checkBounds(final int LENGTH, final int OFFSET, final int STRIDE, final int WIDTH, final int HEIGHT) {
+        if (WIDTH <= 0 || HEIGHT <= 0) throw new IllegalArgumentException("Width and height must be > 0");
+        if (STRIDE < WIDTH) throw new IllegalArgumentException("Stride must be >= width");
+        if (OFFSET < 0 || OFFSET + (long) (HEIGHT - 1) * STRIDE + WIDTH > LENGTH) throw new IndexOutOfBoundsException("Buffer too small for " + WIDTH + "x" + HEIGHT + " pixels");
+    }
+
+    private int[] compileLut(final CompiledStops STOPS) {
+        int[] lut = new int[LUT_SIZE];
+        for (int i = 0; i < LUT_SIZE; i++) { lut[i] = STOPS.getArgbAt((i + 0.5) / LUT_SIZE); }
+        return lut;
+    }
+
+    private static int scaleAlpha(final int ARGB, final double FACTOR) {
+        return ((int) Math.round((ARGB >>> 24) * FACTOR) << 24) | (ARGB & 0x00FFFFFF);
+    }
+
+    // Fades out the outermost pixels of the round raster
+    private static int rim(final int ARGB, final double DISTANCE, final double RADIUS) {
+        if (DISTANCE > RADIUS - 0.25) return scaleAlpha(ARGB, 0.25);
+        if (DISTANCE > RADIUS - 0.5)  return scaleAlpha(ARGB, 0.45);
+        if (DISTANCE > RADIUS - 1.0)  return scaleAlpha(ARGB, 0.65);
+        return scaleAlpha(ARGB, 0.85);
+    }
+
+    private static int premultiply(final int ARGB) {
+        final int ALPHA = ARGB >>> 24;
+        if (ALPHA == 0xFF) return ARGB;
+        if (ALPHA == 0x00) return 0;
+        return (ALPHA << 24) |
+               ((((ARGB >> 16) & 0xFF) * ALPHA + 127) / 255) << 16 |
+               ((((ARGB >> 8)  & 0xFF) * ALPHA + 127) / 255) << 8  |
+               (((ARGB         & 0xFF) * ALPHA + 127) / 255);
     }
-    private List<Stop> normalizeStops(final double OFFSET, final List<Stop> STOPS) {
-        double offset = clamp(0.0, 1.0, OFFSET);
-        List<Stop> stops;
-        if (null == STOPS || STOPS.isEmpty()) {
-            stops = new ArrayList<>();
-            stops.add(new Stop(0.0, Color.TRANSPARENT));
-            stops.add(new Stop(1.0, Color.TRANSPARENT));
-        } else {
-            stops = STOPS;
-        }
-        List<Stop> sortedStops = calculate(stops, offset);
+
+    private CompiledStops normalizeStops(final double OFFSET, final CompiledStops STOPS) {
+        double        offset = clamp(0.0, 1.0, OFFSET);
+        CompiledStops stops  = null == STOPS || STOPS.isEmpty() ? CompiledStops.of(new Stop(0.0, Color.TRANSPARENT), new Stop(1.0, Color.TRANSPARENT)) : STOPS;
+        stops = stops.rotated(offset);
 
         // Reverse the Stops for CCW direction
-        if (ScaleDirection.COUNTER_CLOCKWISE == scaleDirection) {
-            List<Stop> sortedStops3 = new ArrayList<>();
-            Collections.reverse(sortedStops);
-            for (Stop stop : sortedStops) { sortedStops3.add(new Stop(1.0 - stop.getOffset(), stop.getColor())); }
-            sortedStops = sortedStops3;
-        }
-        return sortedStops;
+        if (ScaleDirection.COUNTER_CLOCKWISE == scaleDirection) { stops = stops.reversed(); }
+        return stops;
     }
 
     private double clamp(final double MIN, final double MAX, final double VALUE) {
@@ -311,4 +670,273 @@ public class ConicalGradient {
         if (VALUE > MAX) return MAX;
         return VALUE;
     }
-}
\ No newline at end of file
+
+
+    // ******************** Inner Classes *************************************
+    /**
+     * Immutable snapshot of everything that is needed to rasterize the gradient,
+     * which makes it safe to render on any thread.
+     */
+    private static final class Rasterizer {
+        private final int[]   lut;
+        private final int     phaseShift;
+        private final double  centerX;
+        private final double  centerY;
+        private final boolean parallel;
+
+        Rasterizer(final int[] LUT, final int PHASE_SHIFT, final double CENTER_X, final double CENTER_Y, final boolean PARALLEL) {
+            lut        = LUT;
+            phaseShift = PHASE_SHIFT;
+            centerX    = CENTER_X;
+            centerY    = CENTER_Y;
+            parallel   = PARALLEL;
+        }
+
+        Rasterizer premultiplied() {
+            int[] lutPre = new int[lut.length];
+            for (int i = 0; i < lut.length; i++) { lutPre[i] = premultiply(lut[i]); }
+            return new Rasterizer(lutPre, phaseShift, centerX, centerY, parallel);
+        }
+
+        /**
+         * Returns an index between 1 and 255 per pixel that represents the angle of the
+         * pixel, pixels outside of the shape of the given type get the index 0.
+         */
+        byte[] index(final int WIDTH, final int HEIGHT, final RasterType TYPE, final double INNER_RADIUS, final double OUTER_RADIUS) {
+            final byte[]  INDICES     = new byte[WIDTH * HEIGHT];
+            final char[]  FIELD       = AngleField.get(WIDTH, HEIGHT, centerX, centerY);
+            final double  RADIUS      = Math.min(WIDTH, HEIGHT) * 0.5;
+            final double  MIN_SQUARED = RasterType.RING == TYPE ? INNER_RADIUS * INNER_RADIUS : 0;
+            final double  MAX_SQUARED = RasterType.RING == TYPE ? OUTER_RADIUS * OUTER_RADIUS : RADIUS * RADIUS;
+            final boolean MASKED      = RasterType.RECT != TYPE;
+            for (int y = 0; y < HEIGHT; y++) {
+                int    row = y * WIDTH;
+                double dy  = y - centerY;
+                for (int x = 0; x < WIDTH; x++) {
+                    if (MASKED) {
+                        double dx              = x - centerX;
+                        double distanceSquared = (dx * dx) + (dy * dy);
+                        if (distanceSquared < MIN_SQUARED || distanceSquared > MAX_SQUARED) continue;
+                    }
+                    INDICES[row + x] = (byte) (1 + ((FIELD[row + x] * 255) >>> AngleField.ANGLE_BITS));
+                }
+            }
+            return INDICES;
+        }
+
+        /**
+         * Uploads the given indices with a palette that is derived from the color lookup
+         * table, the anti-aliased rim of the round raster is patched afterwards.
+         */
+        WritableImage expand(final byte[] INDICES, final int WIDTH, final int HEIGHT, final RasterType TYPE) {
+            final int[] PALETTE = new int[256];
+            for (int i = 1; i < 256; i++) {
+                int angle = ((i - 1) * (1 << AngleField.ANGLE_BITS) + (1 << (AngleField.ANGLE_BITS - 1))) / 255;
+                PALETTE[i] = lut[((angle - phaseShift) & PHASE_MASK) >>> LUT_SHIFT];
+            }
+            WritableImage raster = new WritableImage(WIDTH, HEIGHT);
+            PixelWriter   writer = raster.getPixelWriter();
+            writer.setPixels(0, 0, WIDTH, HEIGHT, PixelFormat.createByteIndexedInstance(PALETTE), INDICES, 0, WIDTH);
+            if (RasterType.ROUND == TYPE) {
+                final double RADIUS        = Math.min(WIDTH, HEIGHT) * 0.5;
+                final double SOLID_SQUARED = (RADIUS - 1.5) * (RADIUS - 1.5);
+                for (int y = 0; y < HEIGHT; y++) {
+                    int    row = y * WIDTH;
+                    double dy  = y - centerY;
+                    for (int x = 0; x < WIDTH; x++) {
+                        double dx              = x - centerX;
+                        double distanceSquared = (dx * dx) + (dy * dy);
+                        if (0 == INDICES[row + x] || distanceSquared <= SOLID_SQUARED) continue;
+                        writer.setArgb(x, y, rim(PALETTE[INDICES[row + x] & 0xFF], Math.sqrt(distanceSquared), RADIUS));
+                    }
+                }
+            }
+            return raster;
+        }
+
+        WritableImage render(final int WIDTH, final int HEIGHT, final RasterType TYPE, final double INNER_RADIUS, final double OUTER_RADIUS) {
+            final int[] PIXELS = new int[WIDTH * HEIGHT];
+            renderInto(PIXELS, 0, WIDTH, WIDTH, HEIGHT, TYPE, INNER_RADIUS, OUTER_RADIUS, false);
+            WritableImage raster = new WritableImage(WIDTH, HEIGHT);
+            raster.getPixelWriter().setPixels(0, 0, WIDTH, HEIGHT, PixelFormat.getIntArgbInstance(), PIXELS, 0, WIDTH);
+            return raster;
+        }
+
+        // The pixel (x, y) is written to DST[OFFSET + y * STRIDE + x], CLEAR zeroes ring pixels outside the annulus
+        void renderInto(final int[] DST, final int OFFSET, final int STRIDE, final int WIDTH, final int HEIGHT,
+                        final RasterType TYPE, final double INNER_RADIUS, final double OUTER_RADIUS, final boolean CLEAR) {
+            final char[] FIELD = AngleField.get(WIDTH, HEIGHT, centerX, centerY);
+            if (parallel && WIDTH * HEIGHT >= PARALLEL_THRESHOLD) {
+                final int BANDS = (HEIGHT + BAND_HEIGHT - 1) / BAND_HEIGHT;
+                IntStream.range(0, BANDS).parallel().forEach(band -> fillRows(DST, OFFSET, STRIDE, FIELD, WIDTH, HEIGHT, band * BAND_HEIGHT, Math.min(HEIGHT, (band + 1) * BAND_HEIGHT), TYPE, INNER_RADIUS, OUTER_RADIUS, CLEAR));
+            } else {
+                fillRows(DST, OFFSET, STRIDE, FIELD, WIDTH, HEIGHT, 0, HEIGHT, TYPE, INNER_RADIUS, OUTER_RADIUS, CLEAR);
+            }
+        }
+
+        void renderInto(final IntBuffer DST, final int OFFSET, final int STRIDE, final int WIDTH, final int HEIGHT) {
+            if (DST.hasArray()) {
+                renderInto(DST.array(), DST.arrayOffset() + OFFSET, STRIDE, WIDTH, HEIGHT, RasterType.RECT, 0, 0, true);
+                return;
+            }
+            // Direct buffers are filled band by band through a small array that is copied row by row
+            final char[] FIELD = AngleField.get(WIDTH, HEIGHT, centerX, centerY);
+            final int    BANDS = (HEIGHT + BAND_HEIGHT - 1) / BAND_HEIGHT;
+            IntStream bands = IntStream.range(0, BANDS);
+            if (parallel && WIDTH * HEIGHT >= PARALLEL_THRESHOLD) { bands = bands.parallel(); }
+            bands.forEach(band -> {
+                final int   FROM_Y = band * BAND_HEIGHT;
+                final int   TO_Y   = Math.min(HEIGHT, FROM_Y + BAND_HEIGHT);
+                final int[] ROWS   = new int[WIDTH * (TO_Y - FROM_Y)];
+                fillRows(ROWS, -FROM_Y * WIDTH, WIDTH, FIELD, WIDTH, HEIGHT, FROM_Y, TO_Y, RasterType.RECT, 0, 0, false);
+                IntBuffer buffer = DST.duplicate();
+                for (int y = FROM_Y; y < TO_Y; y++) {
+                    buffer.limit(buffer.capacity()).position(OFFSET + y * STRIDE);
+                    buffer.put(ROWS, (y - FROM_Y) * WIDTH, WIDTH);
+                }
+            });
+        }
+
+        private void fillRows(final int[] DST, final int OFFSET, final int STRIDE, final char[] FIELD, final int WIDTH, final int HEIGHT, final int FROM_Y, final int TO_Y,
+                              final RasterType TYPE, final double INNER_RADIUS, final double OUTER_RADIUS, final boolean CLEAR) {
+            if (RasterType.RING == TYPE) {
+                if (CLEAR) { for (int y = FROM_Y; y < TO_Y; y++) { Arrays.fill(DST, OFFSET + y * STRIDE, OFFSET + y * STRIDE + WIDTH, 0); } }
+                fillRingRows(DST, OFFSET, STRIDE, FIELD, WIDTH, FROM_Y, TO_Y, INNER_RADIUS, OUTER_RADIUS);
+                return;
+            }
+            if (RasterType.ROUND == TYPE) {
+                fillRoundRows(DST, OFFSET, STRIDE, FIELD, WIDTH, HEIGHT, FROM_Y, TO_Y);
+                return;
+            }
+            for (int y = FROM_Y; y < TO_Y; y++) { fillSpan(DST, OFFSET + y * STRIDE, FIELD, y * WIDTH, 0, WIDTH - 1); }
+        }
+
+        private void fillRoundRows(final int[] DST, final int OFFSET, final int STRIDE, final char[] FIELD, final int WIDTH, final int HEIGHT, final int FROM_Y, final int TO_Y) {
+            final double RADIUS         = Math.min(WIDTH, HEIGHT) * 0.5;
+            final double RADIUS_SQUARED = RADIUS * RADIUS;
+            final double SOLID_SQUARED  = (RADIUS - 1.5) * (RADIUS - 1.5);
+            for (int y = FROM_Y; y < TO_Y; y++) {
+                int    row       = y * WIDTH;
+                int    dstRow    = OFFSET + y * STRIDE;
+                double dy        = y - centerY;
+                double dySquared = dy * dy;
+
+                // Columns that are safely within the solid disc skip the distance test, one pixel margin absorbs rounding
+                int solidMinX = WIDTH;
+                int solidMaxX = -1;
+                if (RADIUS > 1.5 && dySquared < SOLID_SQUARED) {
+                    double solid = Math.sqrt(SOLID_SQUARED - dySquared);
+                    solidMinX = Math.max(0, (int) Math.ceil(centerX - solid) + 1);
+                    solidMaxX = Math.min(WIDTH - 1, (int) Math.floor(centerX + solid) - 1);
+                }
+                if (solidMinX > solidMaxX) {
+                    solidMinX = WIDTH;
+                    solidMaxX = WIDTH - 1;
+                }
+                for (int x = 0; x < solidMinX; x++) { DST[dstRow + x] = roundPixel(FIELD[row + x], x - centerX, dySquared, RADIUS, RADIUS_SQUARED, SOLID_SQUARED); }
+                fillSpan(DST, dstRow, FIELD, row, solidMinX, solidMaxX);
+                for (int x = solidMaxX + 1; x < WIDTH; x++) { DST[dstRow + x] = roundPixel(FIELD[row + x], x - centerX, dySquared, RADIUS, RADIUS_SQUARED, SOLID_SQUARED); }
+            }
+        }
+
+        private int roundPixel(final char ANGLE, final double DX, final double DY_SQUARED, final double RADIUS, final double RADIUS_SQUARED, final double SOLID_SQUARED) {
+            final double DISTANCE_SQUARED = (DX * DX) + DY_SQUARED;
+            if (DISTANCE_SQUARED > RADIUS_SQUARED) return 0x00000000;
+            final int ARGB = lut[((ANGLE - phaseShift) & PHASE_MASK) >>> LUT_SHIFT];
+            return DISTANCE_SQUARED > SOLID_SQUARED ? rim(ARGB, Math.sqrt(DISTANCE_SQUARED), RADIUS) : ARGB;
+        }
+
+        private void fillRingRows(final int[] DST, final int OFFSET, final int STRIDE, final char[] FIELD, final int WIDTH, final int FROM_Y, final int TO_Y,
+                                  final double INNER_RADIUS, final double OUTER_RADIUS) {
+            final double INNER_SQUARED = INNER_RADIUS * INNER_RADIUS;
+            final double OUTER_SQUARED = OUTER_RADIUS * OUTER_RADIUS;
+            for (int y = FROM_Y; y < TO_Y; y++) {
+                double dy        = y - centerY;
+                double dySquared = dy * dy;
+                if (dySquared > OUTER_SQUARED) continue;
+
+                // Columns within the outer circle, excluding the columns within the inner circle
+                int    row    = y * WIDTH;
+                int    dstRow = OFFSET + y * STRIDE;
+                double outer  = Math.sqrt(OUTER_SQUARED - dySquared);
+                int    minX   = Math.max(0, (int) Math.ceil(centerX - outer));
+                int    maxX   = Math.min(WIDTH - 1, (int) Math.floor(centerX + outer));
+                if (dySquared < INNER_SQUARED) {
+                    double inner  = Math.sqrt(INNER_SQUARED - dySquared);
+                    int    leftX  = Math.min(maxX, (int) Math.floor(centerX - inner));
+                    int    rightX = Math.max(minX, (int) Math.ceil(centerX + inner));
+                    fillSpan(DST, dstRow, FIELD, row, minX, leftX);
+                    fillSpan(DST, dstRow, FIELD, row, rightX, maxX);
+                } else {
+                    fillSpan(DST, dstRow, FIELD, row, minX, maxX);
+                }
+            }
+        }
+
+        private void fillSpan(final int[] DST, final int DST_ROW, final char[] FIELD, final int ROW, final int FROM_X, final int TO_X) {
+            for (int x = FROM_X; x <= TO_X; x++) {
+                DST[DST_ROW + x] = lut[((FIELD[ROW + x] - phaseShift) & PHASE_MASK) >>> LUT_SHIFT];
+            }
+        }
+    }
+
+    /**
+     * Holds the raster of one raster type. Depending on the storage mode the raster is
+     * either retained or only weakly referenced, so it can be reused as long as somebody
+     * else still uses it.
+     */
+    private final class Slot {
+        private RasterCache.Key              key;
+        private boolean                      cached;
+        private WritableImage                image;
+        private WeakReference<WritableImage> weakImage;
+        private RasterCache.Key              indexKey;
+        private byte[]                       indices;
+
+        WritableImage get(final RasterCache.Key KEY) { return KEY.equals(key) ? peek() : null; }
+
+        WritableImage getCovering(final RasterCache.Key KEY) { return null != key && key.covers(KEY) ? peek() : null; }
+
+        WritableImage peek() {
+            if (null != image) return image;
+            return null == weakImage ? null : weakImage.get();
+        }
+
+        void set(final RasterCache.Key KEY, final WritableImage IMAGE, final boolean CACHED, final boolean RETAINED) {
+            if (cached && !KEY.equals(key)) { RasterCache.release(key, ConicalGradient.this); }
+            key       = KEY;
+            cached    = CACHED;
+            image     = RETAINED ? IMAGE : null;
+            weakImage = RETAINED ? null : new WeakReference<>(IMAGE);
+        }
+
+        // The indices only depend on the geometry, so they survive changes of the stops and the phase
+        byte[] getIndices(final Rasterizer RASTERIZER, final int WIDTH, final int HEIGHT, final RasterType TYPE, final double INNER_RADIUS, final double OUTER_RADIUS) {
+            final RasterCache.Key KEY = new RasterCache.Key(CompiledStops.EMPTY, 0, WIDTH, HEIGHT, RASTERIZER.centerX, RASTERIZER.centerY, TYPE, INNER_RADIUS, OUTER_RADIUS, 1.0);
+            if (!KEY.equals(indexKey)) {
+                indices  = RASTERIZER.index(WIDTH, HEIGHT, TYPE, INNER_RADIUS, OUTER_RADIUS);
+                indexKey = KEY;
+            }
+            return indices;
+        }
+
+        void clear() {
+            if (cached) { RasterCache.release(key, ConicalGradient.this); }
+            key       = null;
+            cached    = false;
+            image     = null;
+            weakImage = null;
+        }
+
+        void clearIndices() {
+            indexKey = null;
+            indices  = null;
+        }
+
+        long getRetainedBytes() {
+            long bytes = null == indices ? 0 : indices.length;
+            if (null != image) { bytes += (long) image.getWidth() * (long) image.getHeight() * 4L; }
+            return bytes;
+        }
+    }
+}
@@ -34,7 +34,9 @@ import javafx.scene.CacheHint;
 import javafx.scene.Group;
 import javafx.scene.effect.BlurType;
 import javafx.scene.effect.DropShadow;
+import javafx.scene.effect.Effect;
 import javafx.scene.effect.InnerShadow;
+import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundFill;
@@ -43,6 +45,7 @@ import javafx.scene.layout.Pane;
 import javafx.scene.layout.Region;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
+import javafx.scene.paint.ImagePattern;
 import javafx.scene.paint.Stop;
 import javafx.scene.shape.Arc;
 import javafx.scene.shape.ArcType;
@@ -50,21 +53,15 @@ import javafx.scene.shape.Circle;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.shape.Shape;
 import javafx.scene.shape.StrokeLineCap;
-import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.scene.transform.Rotate;
 import javafx.scene.transform.Scale;
+import javafx.util.Duration;
 import org.kordamp.ikonli.Ikon;
 import org.kordamp.ikonli.javafx.FontIcon;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
-import java.util.SortedSet;
-import java.util.TreeSet;
 
 
 /**
@@ -78,6 +75,14 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
     private static final double         MINIMUM_HEIGHT   = 50;
     private static final double         MAXIMUM_WIDTH    = 1024;
     private static final double         MAXIMUM_HEIGHT   = 1024;
+    // Compresses the stops onto the bar (0.0 -> 0.611, 0.5 -> 0.0 & 1.0, 1.0 -> 0.389)
+    private static final double         BAR_RANGE        = 0.778;
+    private static final double         SIZE_THRESHOLD   = 0.5;
+    private static final int            DIRTY_GEOMETRY   = 1;
+    private static final int            DIRTY_PAINT      = 1 << 1;
+    private static final int            DIRTY_VALUE      = 1 << 2;
+    private static final int            DIRTY_CURRENT    = 1 << 3;
+    private static final int            DIRTY_TEXT       = 1 << 4;
     private              double         BAR_START_ANGLE  = -130;
     private              double         ANGLE_RANGE      = 280;
     private final        RegulatorEvent ADJUSTING_EVENT  = new RegulatorEvent(RegulatorEvent.ADJUSTING);
@@ -85,6 +90,7 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
     private final        RegulatorEvent TARGET_SET_EVENT = new RegulatorEvent(RegulatorEvent.TARGET_SET);
     private double                      size;
     private Arc                         barArc;
+    private SegmentedBar                barSegments;
     private Arc                         overlayBarArc;
     private Shape                       ring;
     private Circle                      mainCircle;
@@ -95,6 +101,9 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
     private StackPane                   iconPane;
     private FontIcon                    icon;
     private Pane                        pane;
+    private ImageView                   bezelBack;
+    private ImageView                   bezelFront;
+    private ImageView                   bezelHighlight;
     private DropShadow                  dropShadow;
     private InnerShadow                 highlight;
     private InnerShadow                 innerShadow;
@@ -115,7 +124,21 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
     private ObjectProperty<Color>       color;
     private ObjectProperty<Color>       indicatorColor;
     private BooleanProperty             selected;
-    private String                      formatString;
+    private BooleanProperty             asyncRendering;
+    private BooleanProperty             mipmapping;
+    private BooleanProperty             segmentedBar;
+    private BooleanProperty             coalescing;
+    private BooleanProperty             bakedBezel;
+    private int                         dirty;
+    private Color                       paintedColor;
+    private Color                       darkerColor;
+    private Color                       darkestColor;
+    private Color                       paintedSymbolColor;
+    private long                        droppedUpdates;
+    private ValueFormat                 textFormat;
+    private ValueFormat                 targetFormat;
+    private TextFitter                  textFitter;
+    private TextFitter                  targetFitter;
     private double                      angleStep;
     private ConicalGradient             barGradient;
 
@@ -166,9 +189,12 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
                     targetText.setVisible(true);
                     overlayBarArc.setVisible(true);
                 }
-                setText(get());
-                drawOverlayBar(get());
-                redraw();
+                if (isCoalescing()) {
+                    if ((dirty & DIRTY_CURRENT) != 0) { droppedUpdates++; } else { invalidate(DIRTY_CURRENT); }
+                } else {
+                    setText(get());
+                    drawOverlayBar(get());
+                }
             }
             @Override public Object getBean() { return FeedbackRegulator.this; }
             @Override public String getName() { return "currentValue"; }
@@ -176,8 +202,9 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
         decimals       = new IntegerPropertyBase(0) {
             @Override public void set(final int VALUE) {
                 super.set(clamp(0, 2, VALUE));
-                formatString = new StringBuilder("%.").append(Integer.toString(decimals.get())).append("f").append(getUnit()).toString();
-                redraw();
+                textFormat.setDecimals(get());
+                targetFormat.setDecimals(get());
+                invalidate(DIRTY_TEXT);
             }
             @Override public Object getBean() { return FeedbackRegulator.this; }
             @Override public String getName() { return "decimals"; }
@@ -185,8 +212,9 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
         unit           = new StringPropertyBase("\u00B0") {
             @Override public void set(final String VALUE) {
                 super.set(VALUE.equals("%") ? "%%" : VALUE);
-                formatString = new StringBuilder("%.").append(Integer.toString(decimals.get())).append("f").append(get()).toString();
-                redraw();
+                textFormat.setUnit(get());
+                targetFormat.setUnit(get());
+                invalidate(DIRTY_TEXT);
             }
             @Override public Object getBean() { return FeedbackRegulator.this; }
             @Override public String getName() { return "unit"; }
@@ -194,7 +222,7 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
         symbolColor    = new ObjectPropertyBase<Color>(Color.TRANSPARENT) {
             @Override protected void invalidated() {
                 set(null == get() ? Color.WHITE : get());
-                redraw();
+                invalidate(DIRTY_PAINT);
             }
             @Override public Object getBean() { return FeedbackRegulator.this; }
             @Override public String getName() { return "symbolColor"; }
@@ -202,7 +230,7 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
         iconColor      = new ObjectPropertyBase<Color>(Color.TRANSPARENT) {
             @Override protected void invalidated() {
                 set(null == get() ? Color.WHITE : get());
-                redraw();
+                invalidate(DIRTY_PAINT);
             }
             @Override public Object getBean() { return FeedbackRegulator.this; }
             @Override public String getName() { return "iconColor"; }
@@ -210,7 +238,7 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
         textColor      = new ObjectPropertyBase<Color>(Color.WHITE) {
             @Override protected void invalidated() {
                 set(null == get() ? Color.WHITE : get());
-                redraw();
+                invalidate(DIRTY_PAINT);
             }
             @Override public Object getBean() { return FeedbackRegulator.this; }
             @Override public String getName() { return "textColor"; }
@@ -218,7 +246,7 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
         color          = new ObjectPropertyBase<Color>(DEFAULT_COLOR) {
             @Override protected void invalidated() {
                 super.set(null == get() ? DEFAULT_COLOR : get());
-                redraw();
+                invalidate(DIRTY_PAINT);
             }
             @Override public Object getBean() { return FeedbackRegulator.this; }
             @Override public String getName() { return "color"; }
@@ -229,21 +257,38 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
             @Override public String getName() { return "indicatorColor"; }
         };
         selected       = new BooleanPropertyBase(false) {
-            @Override protected void invalidated() {
-                if (get()) {
-                    indicator.setFill(getIndicatorColor());
-                    indicator.setStroke(getIndicatorColor().darker().darker());
-                    indicator.setEffect(indicatorGlow);
-                } else {
-                    indicator.setFill(getColor().darker());
-                    indicator.setStroke(getColor().darker().darker());
-                    indicator.setEffect(null);
-                }
-            }
+            @Override protected void invalidated() { invalidate(DIRTY_PAINT); }
             @Override public Object getBean() { return FeedbackRegulator.this; }
             @Override public String getName() { return "selected"; }
         };
-        formatString   = new StringBuilder("%.").append(Integer.toString(decimals.get())).append("f").append(unit.get()).toString();
+        asyncRendering = new BooleanPropertyBase(false) {
+            @Override public Object getBean() { return FeedbackRegulator.this; }
+            @Override public String getName() { return "asyncRendering"; }
+        };
+        mipmapping     = new BooleanPropertyBase(false) {
+            @Override public Object getBean() { return FeedbackRegulator.this; }
+            @Override public String getName() { return "mipmapping"; }
+        };
+        segmentedBar   = new BooleanPropertyBase(false) {
+            @Override protected void invalidated() { redrawBar(false); }
+            @Override public Object getBean() { return FeedbackRegulator.this; }
+            @Override public String getName() { return "segmentedBar"; }
+        };
+        coalescing     = new BooleanPropertyBase(false) {
+            @Override protected void invalidated() { if (!get()) { flush(); } }
+            @Override public Object getBean() { return FeedbackRegulator.this; }
+            @Override public String getName() { return "coalescing"; }
+        };
+        bakedBezel     = new BooleanPropertyBase(false) {
+            @Override protected void invalidated() { invalidate(DIRTY_GEOMETRY); }
+            @Override public Object getBean() { return FeedbackRegulator.this; }
+            @Override public String getName() { return "bakedBezel"; }
+        };
+        textFormat     = new ValueFormat(decimals.get(), unit.get());
+        targetFormat   = new ValueFormat(decimals.get(), unit.get());
+        textFitter     = new TextFitter();
+        targetFitter   = new TextFitter();
+        dirty          = DIRTY_PAINT;
         angleStep      = ANGLE_RANGE / (maxValue.get() - minValue.get());
         init();
         initGraphics();
@@ -290,7 +335,10 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
         barArc.setType(ArcType.OPEN);
         barArc.setStrokeLineCap(StrokeLineCap.ROUND);
         barArc.setFill(null);
-        barArc.setStroke(barGradient.getImagePattern(new Rectangle(0, 0, PREFERRED_WIDTH, PREFERRED_HEIGHT)));
+        barArc.setStroke(createBarPattern(PREFERRED_WIDTH, false));
+
+        barSegments = new SegmentedBar();
+        barSegments.setVisible(false);
 
         overlayBarArc = new Arc(PREFERRED_WIDTH * 0.5, PREFERRED_HEIGHT * 0.5, PREFERRED_WIDTH * 0.46, PREFERRED_HEIGHT * 0.46, BAR_START_ANGLE, 0);
         overlayBarArc.setType(ArcType.OPEN);
@@ -308,11 +356,13 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
         mainCircle = new Circle();
         mainCircle.setFill(color.get().darker().darker());
 
-        text = new Text(String.format(Locale.US, formatString, currentValue.get()));
+        textFormat.format(currentValue.get());
+        text = new Text(textFormat.toString());
         text.setFill(textColor.get());
         text.setTextOrigin(VPos.CENTER);
 
-        targetText = new Text(String.format(Locale.US, formatString, targetValue.get()));
+        targetFormat.format(targetValue.get());
+        targetText = new Text(targetFormat.toString());
         targetText.setFill(textColor.get().darker());
         targetText.setTextOrigin(VPos.CENTER);
         targetText.setVisible((int) targetValue.get() != (int) currentValue.get());
@@ -342,7 +392,19 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
 
         iconPane = new StackPane(symbol, icon);
 
-        pane = new Pane(barArc, overlayBarArc, ring, mainCircle, text, targetText, indicatorGroup, iconPane);
+        bezelBack = new ImageView();
+        bezelBack.setMouseTransparent(true);
+        bezelBack.setVisible(false);
+
+        bezelFront = new ImageView();
+        bezelFront.setMouseTransparent(true);
+        bezelFront.setVisible(false);
+
+        bezelHighlight = new ImageView();
+        bezelHighlight.setMouseTransparent(true);
+        bezelHighlight.setVisible(false);
+
+        pane = new Pane(bezelBack, barArc, barSegments, overlayBarArc, bezelFront, ring, mainCircle, text, targetText, indicatorGroup, iconPane, bezelHighlight);
         pane.setPrefSize(PREFERRED_HEIGHT, PREFERRED_HEIGHT);
         pane.setBackground(new Background(new BackgroundFill(color.get().darker(), new CornerRadii(1024), Insets.EMPTY)));
         pane.setEffect(highlight);
@@ -351,11 +413,15 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
     }
 
     private void registerListeners() {
-        widthProperty().addListener(o -> resize());
-        heightProperty().addListener(o -> resize());
+        RenderScale.addListener(this, () -> invalidate(DIRTY_GEOMETRY));
         disabledProperty().addListener(o -> setOpacity(isDisabled() ? 0.4 : 1.0));
-        targetValueProperty().addListener(o -> rotate(targetValue.get()));
-        currentValueProperty().addListener(o -> setText(currentValue.get()));
+        targetValueProperty().addListener(o -> {
+            if (isCoalescing()) {
+                if ((dirty & DIRTY_VALUE) != 0) { droppedUpdates++; } else { invalidate(DIRTY_VALUE); }
+            } else {
+                rotate(targetValue.get());
+            }
+        });
         ring.addEventHandler(MouseEvent.MOUSE_PRESSED, e -> { if (isDisabled()) return; touchRotate(e.getSceneX(), e.getSceneY()); });
         ring.addEventHandler(MouseEvent.MOUSE_DRAGGED, e -> { if (isDisabled()) return; touchRotate(e.getSceneX(), e.getSceneY()); });
         ring.addEventHandler(MouseEvent.MOUSE_RELEASED, e -> { if (isDisabled()) return; fireEvent(TARGET_SET_EVENT); } );
@@ -411,42 +477,60 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
     @Override public void setSelected(final boolean SELECTED) { selected.set(SELECTED); }
     @Override public BooleanProperty selectedProperty() { return selected; }
 
+    public boolean isAsyncRendering() { return asyncRendering.get(); }
+    public void setAsyncRendering(final boolean ASYNC) { asyncRendering.set(ASYNC); }
+    public BooleanProperty asyncRenderingProperty() { return asyncRendering; }
+
+    public boolean isMipmapping() { return mipmapping.get(); }
+    public void setMipmapping(final boolean MIPMAPPING) { mipmapping.set(MIPMAPPING); }
+    public BooleanProperty mipmappingProperty() { return mipmapping; }
+
+    public boolean isSegmentedBar() { return segmentedBar.get(); }
+    public void setSegmentedBar(final boolean SEGMENTED) { segmentedBar.set(SEGMENTED); }
+    public BooleanProperty segmentedBarProperty() { return segmentedBar; }
+
+    /**
+     * If coalescing is enabled new target and current values are only recorded and the
+     * control will be updated with the latest values once per pulse, which saves the
+     * formatting and layout of the texts for values that would never be visible. The
+     * value properties always report the latest values and the adjusting and adjusted
+     * events are still fired for every value.
+     * @return true if updates of the target and current value are coalesced
+     */
+    public boolean isCoalescing() { return coalescing.get(); }
+    public void setCoalescing(final boolean COALESCING) { coalescing.set(COALESCING); }
+    public BooleanProperty coalescingProperty() { return coalescing; }
+
+    /**
+     * If the bezel is baked the background, the ring and the main circle are rendered
+     * with their effects into images, which are shared by all feedback regulators with the
+     * same size, color and render scale. This saves the effect processing in every
+     * frame, the images will only be rendered again if the size or the color changes.
+     * The highlight of the rim is drawn from an image on top of the live nodes, so
+     * the control looks the same in both modes.
+     * @return true if the static parts of the control are drawn from cached images
+     */
+    public boolean isBakedBezel() { return bakedBezel.get(); }
+    public void setBakedBezel(final boolean BAKED) { bakedBezel.set(BAKED); }
+    public BooleanProperty bakedBezelProperty() { return bakedBezel; }
+
+    /**
+     * @return the number of value updates that have been replaced by a newer value before they were drawn
+     */
+    public long getDroppedUpdates() { return droppedUpdates; }
+    public void resetDroppedUpdates() { droppedUpdates = 0; }
+
+    public Duration getRefinementDelay() { return barGradient.getRefinementDelay(); }
+    public void setRefinementDelay(final Duration DELAY) { barGradient.setRefinementDelay(DELAY); }
+
+    public ConicalGradient.StorageMode getStorageMode() { return barGradient.getStorageMode(); }
+    public void setStorageMode(final ConicalGradient.StorageMode MODE) { barGradient.setStorageMode(MODE); }
+
     public List<Stop> getGradientStops() { return barGradient.getStops(); }
     public void setGradientStops(final Stop... STOPS) { setGradientStops(Arrays.asList(STOPS)); }
     public void setGradientStops(final List<Stop> STOPS) {
-        barGradient = new ConicalGradient(reorderStops(STOPS));
-        barArc.setStroke(barGradient.getImagePattern(new Rectangle(0, 0, PREFERRED_WIDTH, PREFERRED_HEIGHT)));
-    }
-
-    private List<Stop> reorderStops(final Stop... STOPS) { return reorderStops(Arrays.asList(STOPS)); }
-    private List<Stop> reorderStops(final List<Stop> STOPS) {
-        /*
-        0.0 -> 0.611
-        0.5 -> 0.0 & 1.0
-        1.0 -> 0.389
-         */
-        double range     = 0.778;
-        double halfRange = range * 0.5;
-
-        Map<Double, Color> stopMap = new HashMap<>();
-        for (Stop stop : STOPS) { stopMap.put(stop.getOffset(), stop.getColor()); }
-
-        List<Stop>        sortedStops     = new ArrayList<>(STOPS.size());
-        SortedSet<Double> sortedFractions = new TreeSet<>(stopMap.keySet());
-        if (sortedFractions.last() < 1) {
-            stopMap.put(1.0, stopMap.get(sortedFractions.last()));
-            sortedFractions.add(1.0);
-        }
-        if (sortedFractions.first() > 0) {
-            stopMap.put(0.0, stopMap.get(sortedFractions.first()));
-            sortedFractions.add(0.0);
-        }
-        for (double fraction : sortedFractions) {
-            double offset = fraction * range - halfRange;
-            offset = offset < 0 ? 1.0 + offset : offset;
-            sortedStops.add(new Stop(offset, stopMap.get(fraction)));
-        }
-        return sortedStops;
+        barGradient.setStops(CompiledStops.of(STOPS).centered(BAR_RANGE));
+        redrawBar(false);
     }
 
     public void setSymbolPath(final double SCALE_X, final double SCALE_Y, final String PATH) {
@@ -466,7 +550,7 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
 
     public void setIcon(final Ikon ICON) {
         icon.setIconCode(ICON);
-        resize();
+        invalidate(DIRTY_GEOMETRY);
     }
 
     private <T extends Number> T clamp(final T MIN, final T MAX, final T VALUE) {
@@ -475,14 +559,6 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
         return VALUE;
     }
 
-    private void adjustTextSize(final Text TEXT, final double MAX_WIDTH, double fontSize) {
-        final String FONT_NAME = TEXT.getFont().getName();
-        while (TEXT.getLayoutBounds().getWidth() > MAX_WIDTH && fontSize > 0) {
-            fontSize -= 0.005;
-            TEXT.setFont(new Font(FONT_NAME, fontSize));
-        }
-    }
-
     private void touchRotate(final double X, final double Y) {
         Point2D p      = sceneToLocal(X, Y);
         double  deltaX = p.getX() - (pane.getLayoutX() + size * 0.5);
@@ -503,21 +579,79 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
 
 
     // ******************** Resizing ******************************************
+    @Override protected void layoutChildren() {
+        super.layoutChildren();
+        final double WIDTH  = getWidth() - getInsets().getLeft() - getInsets().getRight();
+        final double HEIGHT = getHeight() - getInsets().getTop() - getInsets().getBottom();
+        final double SIZE   = WIDTH < HEIGHT ? WIDTH : HEIGHT;
+        // Width and height changes are handled together here, small size changes only recenter the pane
+        if (Math.abs(SIZE - size) >= SIZE_THRESHOLD) {
+            dirty |= DIRTY_GEOMETRY;
+        } else if ((dirty & DIRTY_GEOMETRY) == 0 && size > 0) {
+            pane.relocate((getWidth() - size) * 0.5, (getHeight() - size) * 0.5);
+        }
+        flush();
+    }
+
+    // Changes only set their dirty bit, the affected nodes are updated once per pulse
+    private void invalidate(final int FLAGS) {
+        dirty |= FLAGS;
+        requestLayout();
+    }
+
+    private void flush() {
+        final int DIRTY = dirty;
+        if (0 == DIRTY) return;
+        dirty = 0;
+        if ((DIRTY & DIRTY_GEOMETRY) != 0) {
+            resize();
+        } else {
+            if ((DIRTY & (DIRTY_VALUE | DIRTY_TEXT)) != 0) { rotate(targetValue.get()); }
+            if ((DIRTY & (DIRTY_CURRENT | DIRTY_TEXT)) != 0) {
+                setText(currentValue.get());
+                drawOverlayBar(currentValue.get());
+            }
+        }
+        if ((DIRTY & DIRTY_PAINT) != 0) { redraw(); }
+    }
+
     private void rotate(final double VALUE) {
         indicatorRotate.setAngle((VALUE - minValue.get()) * angleStep - ANGLE_RANGE * 0.5);
-        targetText.setText(String.format(Locale.US, formatString, VALUE));
-        adjustTextSize(targetText, size * 0.24, size * 0.216);
+        if (targetFormat.format(VALUE)) { targetText.setText(targetFormat.toString()); }
+        targetFitter.fit(targetText, size * 0.24, size * 0.216);
         targetText.setLayoutX((size - targetText.getLayoutBounds().getWidth()) * 0.5);
     }
 
     private void setText(final double VALUE) {
-        text.setText(String.format(Locale.US, formatString, VALUE));
-        adjustTextSize(text, size * 0.48, size * 0.216);
+        if (textFormat.format(VALUE)) { text.setText(textFormat.toString()); }
+        textFitter.fit(text, size * 0.48, size * 0.216);
         text.setLayoutX((size - text.getLayoutBounds().getWidth()) * 0.5);
     }
 
+    private ImagePattern createBarPattern(final double SIZE, final boolean RESIZING) {
+        // Only the band between radius 0.44 and 0.48 is covered by the bar stroke
+        Rectangle bounds = new Rectangle(0, 0, SIZE, SIZE);
+        barGradient.setRenderScale(RenderScale.of(this));
+        if (RESIZING && isMipmapping()) return barGradient.getMipmapRingImagePattern(bounds, SIZE * 0.44 - 1, SIZE * 0.48 + 1, isAsyncRendering(), pattern -> barArc.setStroke(pattern));
+        return isAsyncRendering() ? barGradient.getRingImagePattern(bounds, SIZE * 0.44 - 1, SIZE * 0.48 + 1, pattern -> barArc.setStroke(pattern))
+                                  : barGradient.getRingImagePattern(bounds, SIZE * 0.44 - 1, SIZE * 0.48 + 1);
+    }
+
+    private void redrawBar(final boolean RESIZING) {
+        final double  SIZE      = size > 0 ? size : PREFERRED_WIDTH;
+        final boolean SEGMENTED = isSegmentedBar();
+        if (SEGMENTED) {
+            barSegments.update(SIZE * 0.5, SIZE * 0.5, SIZE * 0.46, SIZE * 0.04, BAR_START_ANGLE, ANGLE_RANGE, barGradient);
+        } else {
+            barArc.setStroke(createBarPattern(SIZE, RESIZING));
+        }
+        barArc.setVisible(!SEGMENTED);
+        barSegments.setVisible(SEGMENTED);
+    }
+
     private void drawBar(final double VALUE) {
         barArc.setLength(-(VALUE - minValue.get()) * angleStep);
+        barSegments.setLength(-(VALUE - minValue.get()) * angleStep);
     }
 
     private void drawOverlayBar(final double VALUE) {
@@ -540,7 +674,7 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
             barArc.setRadiusX(size * 0.46);
             barArc.setRadiusY(size * 0.46);
             barArc.setStrokeWidth(size * 0.04);
-            barArc.setStroke(barGradient.getImagePattern(new Rectangle(0, 0, size, size)));
+            redrawBar(true);
             drawBar(maxValue.get());
             barArc.setCache(true);
             barArc.setCacheHint(CacheHint.SPEED);
@@ -597,22 +731,95 @@ public class FeedbackRegulator extends Region implements RegulatorControl {
             iconPane.setPrefSize(size * 0.112, size * 0.112);
             iconPane.relocate((size - iconPane.getPrefWidth()) * 0.5, size * 0.62);
 
-            redraw();
+            updateBezel();
+            rotate(targetValue.get());
+            setText(currentValue.get());
         }
     }
 
+    private void updateBezel() {
+        if (isBakedBezel() && size > 0) {
+            final double SCALE = RenderScale.of(this);
+            bezelBack.setImage(BezelCache.acquire(FeedbackRegulator.class, BezelCache.Layer.BACK, size, color.get(), SCALE, () -> createBezelBackground(color.get().darker(), null)));
+            bezelFront.setImage(BezelCache.acquire(FeedbackRegulator.class, BezelCache.Layer.FRONT, size, color.get(), SCALE, this::createBezelFront));
+            bezelHighlight.setImage(BezelCache.acquireHighlight(FeedbackRegulator.class, size, SCALE, FILL -> createBezelBackground(FILL, highlight)));
+            for (ImageView layer : new ImageView[] { bezelBack, bezelFront, bezelHighlight }) {
+                layer.setFitWidth(size);
+                layer.setFitHeight(size);
+            }
+            if (bezelBack.isVisible()) return;
+            bezelBack.setVisible(true);
+            bezelFront.setVisible(true);
+            bezelHighlight.setVisible(true);
+            // The ring stays in the scene because it receives the mouse events
+            ring.setEffect(null);
+            ring.setOpacity(0);
+            mainCircle.setVisible(false);
+            pane.setBackground(null);
+            pane.setEffect(null);
+        } else if (bezelBack.isVisible()) {
+            for (ImageView layer : new ImageView[] { bezelBack, bezelFront, bezelHighlight }) {
+                layer.setImage(null);
+                layer.setVisible(false);
+            }
+            ring.setEffect(dropShadow);
+            ring.setOpacity(1);
+            mainCircle.setVisible(true);
+            pane.setBackground(new Background(new BackgroundFill(color.get().darker(), new CornerRadii(1024), Insets.EMPTY)));
+            pane.setEffect(highlight);
+        }
+    }
+
+    private Region createBezelBackground(final Color FILL, final Effect EFFECT) {
+        Pane bezelPane = new Pane();
+        bezelPane.setBackground(new Background(new BackgroundFill(FILL, new CornerRadii(1024), Insets.EMPTY)));
+        bezelPane.setEffect(EFFECT);
+        return bezelPane;
+    }
+
+    private Region createBezelFront() {
+        final double CENTER = PREFERRED_WIDTH * 0.5;
+        Shape bezelRing = Shape.subtract(new Circle(CENTER, CENTER, PREFERRED_WIDTH * 0.42),
+                                         new Circle(CENTER, CENTER, PREFERRED_WIDTH * 0.3));
+        bezelRing.setFill(color.get());
+        bezelRing.setEffect(dropShadow);
+        bezelRing.getTransforms().setAll(new Scale(scaleFactor, scaleFactor, 0, 0));
+        Circle bezelCircle = new Circle(mainCircle.getCenterX(), mainCircle.getCenterY(), mainCircle.getRadius(), color.get().darker().darker());
+        // Cached like ring and mainCircle, the cache rasterizes the shapes and effects slightly differently
+        bezelRing.setCache(true);
+        bezelRing.setCacheHint(CacheHint.SPEED);
+        bezelCircle.setCache(true);
+        bezelCircle.setCacheHint(CacheHint.SPEED);
+        return new Pane(bezelRing, bezelCircle);
+    }
+
     private void redraw() {
-        pane.setBackground(new Background(new BackgroundFill(color.get().darker(), new CornerRadii(1024), Insets.EMPTY)));
-        mainCircle.setFill(color.get().darker().darker());
-        ring.setFill(color.get());
-        indicator.setFill(isSelected() ? indicatorColor.get() : color.get().darker());
-        indicator.setStroke(isSelected() ? indicatorColor.get().darker().darker() : color.get().darker().darker());
-        symbol.setBackground(new Background(new BackgroundFill(symbolColor.get(), CornerRadii.EMPTY, Insets.EMPTY)));
+        final Color COLOR = color.get();
+        if (!COLOR.equals(paintedColor)) {
+            paintedColor = COLOR;
+            darkerColor  = COLOR.darker();
+            darkestColor = darkerColor.darker();
+            if (!bezelBack.isVisible()) { pane.setBackground(new Background(new BackgroundFill(darkerColor, new CornerRadii(1024), Insets.EMPTY))); }
+            mainCircle.setFill(darkestColor);
+            ring.setFill(COLOR);
+            updateBezel();
+        }
+        if (isSelected()) {
+            indicator.setFill(indicatorColor.get());
+            indicator.setStroke(indicatorColor.get().darker().darker());
+            indicator.setEffect(indicatorGlow);
+        } else {
+            indicator.setFill(darkerColor);
+            indicator.setStroke(darkestColor);
+            indicator.setEffect(null);
+        }
+        if (!symbolColor.get().equals(paintedSymbolColor)) {
+            paintedSymbolColor = symbolColor.get();
+            symbol.setBackground(new Background(new BackgroundFill(paintedSymbolColor, CornerRadii.EMPTY, Insets.EMPTY)));
+        }
         icon.setFill(iconColor.get());
         targetText.setFill(textColor.get().darker());
         text.setFill(textColor.get());
-        rotate(targetValue.get());
-        setText(currentValue.get());
     }
 
 
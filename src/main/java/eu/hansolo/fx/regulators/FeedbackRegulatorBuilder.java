@@ -16,10 +16,12 @@
 
 package eu.hansolo.fx.regulators;
 
+import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.Property;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
@@ -30,6 +32,7 @@ import javafx.geometry.Dimension2D;
 import javafx.geometry.Insets;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.Stop;
+import javafx.util.Duration;
 import org.kordamp.ikonli.Ikon;
 
 import java.util.HashMap;
@@ -139,6 +142,41 @@ public class FeedbackRegulatorBuilder<B extends FeedbackRegulatorBuilder<B>> {
         return (B)this;
     }
 
+    public final B asyncRendering(final boolean ASYNC) {
+        properties.put("asyncRendering", new SimpleBooleanProperty(ASYNC));
+        return (B)this;
+    }
+
+    public final B mipmapping(final boolean MIPMAPPING) {
+        properties.put("mipmapping", new SimpleBooleanProperty(MIPMAPPING));
+        return (B)this;
+    }
+
+    public final B segmentedBar(final boolean SEGMENTED) {
+        properties.put("segmentedBar", new SimpleBooleanProperty(SEGMENTED));
+        return (B)this;
+    }
+
+    public final B coalescing(final boolean COALESCING) {
+        properties.put("coalescing", new SimpleBooleanProperty(COALESCING));
+        return (B)this;
+    }
+
+    public final B bakedBezel(final boolean BAKED) {
+        properties.put("bakedBezel", new SimpleBooleanProperty(BAKED));
+        return (B)this;
+    }
+
+    public final B refinementDelay(final Duration DELAY) {
+        properties.put("refinementDelay", new SimpleObjectProperty<>(DELAY));
+        return (B)this;
+    }
+
+    public final B storageMode(final ConicalGradient.StorageMode MODE) {
+        properties.put("storageMode", new SimpleObjectProperty<>(MODE));
+        return (B)this;
+    }
+
     public final B prefSize(final double WIDTH, final double HEIGHT) {
         properties.put("prefSize", new SimpleObjectProperty<>(new Dimension2D(WIDTH, HEIGHT)));
         return (B)this;
@@ -257,6 +295,20 @@ public class FeedbackRegulatorBuilder<B extends FeedbackRegulatorBuilder<B>> {
                 CONTROL.setTranslateY(((DoubleProperty) properties.get(key)).get());
             } else if ("padding".equals(key)) {
                 CONTROL.setPadding(((ObjectProperty<Insets>) properties.get(key)).get());
+            } else if ("asyncRendering".equals(key)) {
+                CONTROL.setAsyncRendering(((BooleanProperty) properties.get(key)).get());
+            } else if ("mipmapping".equals(key)) {
+                CONTROL.setMipmapping(((BooleanProperty) properties.get(key)).get());
+            } else if ("segmentedBar".equals(key)) {
+                CONTROL.setSegmentedBar(((BooleanProperty) properties.get(key)).get());
+            } else if ("coalescing".equals(key)) {
+                CONTROL.setCoalescing(((BooleanProperty) properties.get(key)).get());
+            } else if ("bakedBezel".equals(key)) {
+                CONTROL.setBakedBezel(((BooleanProperty) properties.get(key)).get());
+            } else if ("refinementDelay".equals(key)) {
+                CONTROL.setRefinementDelay(((ObjectProperty<Duration>) properties.get(key)).get());
+            } else if ("storageMode".equals(key)) {
+                CONTROL.setStorageMode(((ObjectProperty<ConicalGradient.StorageMode>) properties.get(key)).get());
             } else if ("onTargetSet".equals(key)) {
                 CONTROL.setOnTargetSet(((ObjectProperty<EventHandler>) properties.get(key)).get());
             } else if ("onAdjusting".equals(key)) {
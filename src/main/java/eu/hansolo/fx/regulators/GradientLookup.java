@@ -19,19 +19,23 @@ package eu.hansolo.fx.regulators;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.Stop;
 
-import java.util.ArrayList;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.stream.IntStream;
 
 
 /**
  * Created by hansolo on 21.12.15.
  */
 public class GradientLookup {
-    private Map<Double, Stop> stops;
+    private static final int  BLACK              = 0xFF000000;
+    private static final int  SEGMENT_STRIDE     = 9;
+    private static final int  BLOCK_SIZE         = 4096;
+    private static final int  PARALLEL_THRESHOLD = 4 * BLOCK_SIZE;
+    // Replaced as a whole by the setters, every lookup reads it once and therefore never sees a half updated gradient
+    private volatile Snapshot snapshot;
 
 
     // ******************** Constructors **************************************
@@ -42,92 +46,204 @@ public class GradientLookup {
         this(Arrays.asList(STOPS));
     }
     public GradientLookup(final List<Stop> STOPS) {
-        stops = new TreeMap<>();
-        for (Stop stop : STOPS) { stops.put(stop.getOffset(), stop); }
-        init();
+        this(CompiledStops.of(STOPS));
     }
-
-
-    // ******************** Initialization ************************************
-    private void init() {
-        if (stops.isEmpty()) return;
-
-        double minFraction = Collections.min(stops.keySet());
-        double maxFraction = Collections.max(stops.keySet());
-
-        if (Double.compare(minFraction, 0.0) > 0) { stops.put(0.0, new Stop(0.0, stops.get(minFraction).getColor())); }
-        if (Double.compare(maxFraction, 1.0) < 0) { stops.put(1.0, new Stop(1.0, stops.get(maxFraction).getColor())); }
+    public GradientLookup(final CompiledStops STOPS) {
+        snapshot = new Snapshot(STOPS.padded(), 0);
     }
 
 
     // ******************** Methods *******************************************
     public Color getColorAt(final double POSITION_OF_COLOR) {
-        if (stops.isEmpty()) return Color.BLACK;
-
-        final double POSITION = clamp(0.0, 1.0, POSITION_OF_COLOR);
-        final Color COLOR;
-        if (stops.size() == 1) {
-            final Map<Double, Color> ONE_ENTRY = (Map<Double, Color>) stops.entrySet().iterator().next();
-            COLOR = stops.get(ONE_ENTRY.keySet().iterator().next()).getColor();
-        } else {
-            Stop lowerBound = stops.get(0.0);
-            Stop upperBound = stops.get(1.0);
-            for (Double fraction : stops.keySet()) {
-                if (Double.compare(fraction,POSITION) < 0) {
-                    lowerBound = stops.get(fraction);
-                }
-                if (Double.compare(fraction, POSITION) > 0) {
-                    upperBound = stops.get(fraction);
-                    break;
-                }
-            }
-            COLOR = interpolateColor(lowerBound, upperBound, POSITION);
-        }
-        return COLOR;
+        final Snapshot SNAPSHOT = snapshot;
+        if (SNAPSHOT.stops.isEmpty()) return Color.BLACK;
+        return CompiledStops.toColor(SNAPSHOT.getArgbAt(POSITION_OF_COLOR));
     }
-    public double getValueFrom(final Color COLOR) {
-        if (stops.isEmpty()) return 0;
-        double red   = COLOR.getRed();
-        double green = COLOR.getGreen();
-        double blue  = COLOR.getBlue();
-        for (double i = 0 ; Double.compare(i, 1.0) <= 0 ; i += 0.01) {
-            Color color = getColorAt(i);
-            if(Math.abs(red   - color.getRed()) < 0.05 &&
-               Math.abs(green - color.getGreen()) < 0.05 &&
-               Math.abs(blue  - color.getBlue()) < 0.05) {
-                return i;
+    /**
+     * Returns the color at the given position as ARGB int without allocating anything.
+     * If a lookup table is enabled the color of the nearest table entry is returned,
+     * otherwise the color is interpolated between the two surrounding stops.
+     * @param POSITION_OF_COLOR position between 0 and 1, other values will be clamped
+     * @return the color at the given position as non premultiplied ARGB int
+     */
+    public int getArgbAt(final double POSITION_OF_COLOR) { return snapshot.getArgbAt(POSITION_OF_COLOR); }
+    /**
+     * Writes the color of every position into the array at the same index, like a call
+     * of getArgbAt(double) for every element. Large arrays are processed in parallel
+     * blocks.
+     * @param POSITIONS positions between 0 and 1, other values will be clamped
+     * @param OUT array that receives the colors as non premultiplied ARGB ints
+     */
+    public void getArgbAt(final double[] POSITIONS, final int[] OUT) {
+        if (OUT.length < POSITIONS.length) throw new IndexOutOfBoundsException("Output too small for " + POSITIONS.length + " positions");
+        snapshot.getArgbAt(POSITIONS, 0, OUT, 0, POSITIONS.length);
+    }
+    /**
+     * Reads the remaining positions of the source buffer and puts their colors into the
+     * destination buffer, the positions of both buffers are advanced like with a relative
+     * bulk get and put.
+     * @param POSITIONS buffer with positions between 0 and 1, other values will be clamped
+     * @param OUT buffer that receives the colors as non premultiplied ARGB ints
+     */
+    public void getArgbAt(final DoubleBuffer POSITIONS, final IntBuffer OUT) {
+        final Snapshot SNAPSHOT = snapshot;
+        final int      LENGTH   = POSITIONS.remaining();
+        if (OUT.remaining() < LENGTH) throw new IndexOutOfBoundsException("Output too small for " + LENGTH + " positions");
+        if (POSITIONS.hasArray() && OUT.hasArray()) {
+            SNAPSHOT.getArgbAt(POSITIONS.array(), POSITIONS.arrayOffset() + POSITIONS.position(), OUT.array(), OUT.arrayOffset() + OUT.position(), LENGTH);
+            POSITIONS.position(POSITIONS.position() + LENGTH);
+            OUT.position(OUT.position() + LENGTH);
+        } else {
+            // Direct buffers are processed block by block through small arrays
+            final double[] SRC = new double[Math.min(LENGTH, BLOCK_SIZE)];
+            final int[]    DST = new int[SRC.length];
+            for (int from = 0; from < LENGTH; from += BLOCK_SIZE) {
+                int count = Math.min(BLOCK_SIZE, LENGTH - from);
+                POSITIONS.get(SRC, 0, count);
+                SNAPSHOT.getArgbAt(SRC, 0, DST, 0, count);
+                OUT.put(DST, 0, count);
             }
         }
-        return 0;
     }
-
-    public List<Stop> getStops() { return new ArrayList<>(stops.values()); }
+    /**
+     * Returns the position of the color on the gradient that is closest to the given
+     * color (compared by red, green and blue). Because the colors are interpolated
+     * linearly between two stops, the closest position on every segment between two
+     * stops is the projection of the color onto that segment, so the result is exact.
+     * The segments are scanned linearly, so a lookup costs O(segments), one projection
+     * per segment (e.g. 255 projections for a palette with 256 stops), there is no
+     * spatial index. If several positions are equally close the smallest one is returned.
+     * @param COLOR the color to look for
+     * @return the position between 0 and 1 of the closest color on the gradient
+     */
+    public double getValueFrom(final Color COLOR) { return snapshot.getValueFrom(COLOR.getRed() * 255.0, COLOR.getGreen() * 255.0, COLOR.getBlue() * 255.0); }
+
+    public List<Stop> getStops() { return snapshot.stops.getStops(); }
+    public CompiledStops getCompiledStops() { return snapshot.stops; }
     public void setStops(final Stop... STOPS) { setStops(Arrays.asList(STOPS)); }
-    public void setStops(final List<Stop> STOPS) {
-        stops.clear();
-        for (Stop stop : STOPS) { stops.put(stop.getOffset(), stop); }
-        init();
+    public void setStops(final List<Stop> STOPS) { setStops(CompiledStops.of(STOPS)); }
+    public synchronized void setStops(final CompiledStops STOPS) { snapshot = new Snapshot(STOPS.padded(), snapshot.lutSize); }
+
+    public int getLutSize() { return snapshot.lutSize; }
+    /**
+     * Defines the number of entries of the lookup table that is used to answer
+     * getColorAt() and getArgbAt() in constant time. The entries are sampled at
+     * equidistant positions including 0 and 1, so the result is quantized to steps of
+     * 1 / (SIZE - 1). A size of 0 disables the table and interpolates every lookup.
+     * @param SIZE number of entries, 0 or at least 2
+     */
+    public synchronized void setLutSize(final int SIZE) {
+        if (SIZE != 0 && SIZE < 2) throw new IllegalArgumentException("Lookup table size must be 0 or >= 2");
+        snapshot = new Snapshot(snapshot.stops, SIZE);
     }
 
-    private static final <T extends Number> T clamp(final T MIN, final T MAX, final T VALUE) {
-        if (VALUE.doubleValue() < MIN.doubleValue()) return MIN;
-        if (VALUE.doubleValue() > MAX.doubleValue()) return MAX;
+    private static double clamp(final double MIN, final double MAX, final double VALUE) {
+        if (VALUE < MIN) return MIN;
+        if (VALUE > MAX) return MAX;
         return VALUE;
     }
 
-    private Color interpolateColor(final Stop LOWER_BOUND, final Stop UPPER_BOUND, final double POSITION) {
-        final double POS = (POSITION - LOWER_BOUND.getOffset()) / (UPPER_BOUND.getOffset() - LOWER_BOUND.getOffset());
 
-        final double DELTA_RED     = (UPPER_BOUND.getColor().getRed()     - LOWER_BOUND.getColor().getRed())     * POS;
-        final double DELTA_GREEN   = (UPPER_BOUND.getColor().getGreen()   - LOWER_BOUND.getColor().getGreen())   * POS;
-        final double DELTA_BLUE    = (UPPER_BOUND.getColor().getBlue()    - LOWER_BOUND.getColor().getBlue())    * POS;
-        final double DELTA_OPACITY = (UPPER_BOUND.getColor().getOpacity() - LOWER_BOUND.getColor().getOpacity()) * POS;
+    // ******************** Inner Classes *************************************
+    /**
+     * Immutable state of the lookup, the padded stops together with the lookup table
+     * and the segments for the inverse lookup that are compiled from them.
+     */
+    private static final class Snapshot {
+        private final CompiledStops stops;
+        private final int           lutSize;
+        private final int[]         lut;
+        private final double[]      segments;
+
+        Snapshot(final CompiledStops STOPS, final int LUT_SIZE) {
+            stops    = STOPS;
+            lutSize  = LUT_SIZE;
+            lut      = compileLut(STOPS, LUT_SIZE);
+            segments = compileSegments(STOPS);
+        }
 
-        double red     = clamp(0.0, 1.0, (LOWER_BOUND.getColor().getRed()     + DELTA_RED));
-        double green   = clamp(0.0, 1.0, (LOWER_BOUND.getColor().getGreen()   + DELTA_GREEN));
-        double blue    = clamp(0.0, 1.0, (LOWER_BOUND.getColor().getBlue()    + DELTA_BLUE));
-        double opacity = clamp(0.0, 1.0, (LOWER_BOUND.getColor().getOpacity() + DELTA_OPACITY));
+        int getArgbAt(final double POSITION_OF_COLOR) {
+            if (stops.isEmpty()) return BLACK;
+            final double POSITION = clamp(0.0, 1.0, POSITION_OF_COLOR);
+            if (null != lut) return lut[(int) (POSITION * (lutSize - 1) + 0.5)];
+            return stops.getArgbAt(POSITION);
+        }
 
-        return Color.color(red, green, blue, opacity);
+        void getArgbAt(final double[] POSITIONS, final int POSITIONS_OFFSET, final int[] OUT, final int OUT_OFFSET, final int LENGTH) {
+            if (LENGTH >= PARALLEL_THRESHOLD) {
+                final int BLOCKS = (LENGTH + BLOCK_SIZE - 1) / BLOCK_SIZE;
+                IntStream.range(0, BLOCKS).parallel().forEach(block -> fill(POSITIONS, POSITIONS_OFFSET, OUT, OUT_OFFSET, block * BLOCK_SIZE, Math.min(LENGTH, (block + 1) * BLOCK_SIZE)));
+            } else {
+                fill(POSITIONS, POSITIONS_OFFSET, OUT, OUT_OFFSET, 0, LENGTH);
+            }
+        }
+
+        double getValueFrom(final double RED, final double GREEN, final double BLUE) {
+            if (stops.isEmpty()) return 0;
+            double value    = 0;
+            double distance = Double.MAX_VALUE;
+            for (int i = 0; i < segments.length; i += SEGMENT_STRIDE) {
+                double dr       = RED   - segments[i];
+                double dg       = GREEN - segments[i + 1];
+                double db       = BLUE  - segments[i + 2];
+                double fraction = segments[i + 6] > 0 ? ((dr * segments[i + 3]) + (dg * segments[i + 4]) + (db * segments[i + 5])) / segments[i + 6] : 0;
+                fraction = clamp(0.0, 1.0, fraction);
+                dr -= fraction * segments[i + 3];
+                dg -= fraction * segments[i + 4];
+                db -= fraction * segments[i + 5];
+                double d = (dr * dr) + (dg * dg) + (db * db);
+                if (d < distance) {
+                    distance = d;
+                    value    = segments[i + 7] + fraction * segments[i + 8];
+                }
+            }
+            return clamp(0.0, 1.0, value);
+        }
+
+        private void fill(final double[] POSITIONS, final int POSITIONS_OFFSET, final int[] OUT, final int OUT_OFFSET, final int FROM, final int TO) {
+            if (stops.isEmpty()) {
+                Arrays.fill(OUT, OUT_OFFSET + FROM, OUT_OFFSET + TO, BLACK);
+            } else if (null != lut) {
+                final int[]  LUT   = lut;
+                final double SCALE = lutSize - 1;
+                for (int i = FROM; i < TO; i++) { OUT[OUT_OFFSET + i] = LUT[(int) (clamp(0.0, 1.0, POSITIONS[POSITIONS_OFFSET + i]) * SCALE + 0.5)]; }
+            } else {
+                final CompiledStops STOPS = stops;
+                for (int i = FROM; i < TO; i++) { OUT[OUT_OFFSET + i] = STOPS.getArgbAt(clamp(0.0, 1.0, POSITIONS[POSITIONS_OFFSET + i])); }
+            }
+        }
+
+        // Per segment: start color (r, g, b), color delta (r, g, b), squared color length, start offset, offset delta
+        private static double[] compileSegments(final CompiledStops STOPS) {
+            if (STOPS.isEmpty()) return new double[0];
+            final int      COUNT    = Math.max(1, STOPS.size() - 1);
+            final double[] SEGMENTS = new double[COUNT * SEGMENT_STRIDE];
+            for (int i = 0; i < COUNT; i++) {
+                int from = STOPS.getArgb(i);
+                int to   = STOPS.getArgb(Math.min(i + 1, STOPS.size() - 1));
+                int dr   = ((to >> 16) & 0xFF) - ((from >> 16) & 0xFF);
+                int dg   = ((to >> 8) & 0xFF)  - ((from >> 8) & 0xFF);
+                int db   = (to & 0xFF)         - (from & 0xFF);
+                int base = i * SEGMENT_STRIDE;
+                SEGMENTS[base]     = (from >> 16) & 0xFF;
+                SEGMENTS[base + 1] = (from >> 8) & 0xFF;
+                SEGMENTS[base + 2] = from & 0xFF;
+                SEGMENTS[base + 3] = dr;
+                SEGMENTS[base + 4] = dg;
+                SEGMENTS[base + 5] = db;
+                SEGMENTS[base + 6] = (dr * dr) + (dg * dg) + (db * db);
+                SEGMENTS[base + 7] = STOPS.getOffset(i);
+                SEGMENTS[base + 8] = (STOPS.getOffset(Math.min(i + 1, STOPS.size() - 1)) - STOPS.getOffset(i));
+            }
+            return SEGMENTS;
+        }
+
+        private static int[] compileLut(final CompiledStops STOPS, final int SIZE) {
+            if (SIZE == 0 || STOPS.isEmpty()) return null;
+            final int[]  LUT  = new int[SIZE];
+            final double STEP = 1.0 / (SIZE - 1);
+            for (int i = 0; i < SIZE; i++) { LUT[i] = STOPS.getArgbAt(Math.min(1.0, i * STEP)); }
+            return LUT;
+        }
     }
 }
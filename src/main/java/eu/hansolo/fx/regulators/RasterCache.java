@@ -0,0 +1,436 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.regulators;
+
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+
+/**
+ * Process wide cache that lets all ConicalGradients with the same stops, phase,
+ * size, center, raster type and render scale share one raster. Every raster keeps track of the gradients
+ * that use it. Rasters that are not used by any gradient anymore are evicted in
+ * least recently used order as soon as the cached bytes exceed the configured
+ * budget.
+ * If a cache directory is set, every rendered raster is also written to a file in
+ * that directory. On later launches these files are memory mapped and uploaded
+ * without rendering. Each file starts with a header that contains the file format
+ * version, the size and all fields of the key, files that don't match (e.g. two keys
+ * with the same file name hash) are deleted and rendered again. Failed disk operations
+ * don't break the rendering, they are counted in the disk failure count.
+ */
+public final class RasterCache {
+    private static final long                DEFAULT_MAX_BYTES = 32 * 1024 * 1024;
+    // Has to be increased whenever the file format or the output of the rasterizer changes
+    private static final int                 FILE_VERSION      = 3;
+    private static final int                 FILE_MAGIC        = 0x43475243;
+    // Magic, version, width, height and the length of the encoded key that follows
+    private static final int                 FILE_HEADER_BYTES = 20;
+    private static final String              FILE_SUFFIX       = ".raster";
+    private static final Map<Key, Entry>     CACHE             = new LinkedHashMap<>(16, 0.75f, true);
+    private static       boolean             enabled           = true;
+    private static       long                maxBytes          = DEFAULT_MAX_BYTES;
+    private static       long                cachedBytes;
+    private static       long                hitCount;
+    private static       long                missCount;
+    private static       long                evictionCount;
+    private static       long                diskHitCount;
+    private static       long                diskFailureCount;
+    private static       Path                cacheDirectory;
+
+
+    // ******************** Constructors **************************************
+    private RasterCache() {}
+
+
+    // ******************** Methods *******************************************
+    public static synchronized boolean isEnabled() { return enabled; }
+    public static synchronized void setEnabled(final boolean ENABLED) {
+        enabled = ENABLED;
+        if (!enabled) { clear(); }
+    }
+
+    public static synchronized long getMaxBytes() { return maxBytes; }
+    public static synchronized void setMaxBytes(final long MAX_BYTES) {
+        maxBytes = Math.max(0, MAX_BYTES);
+        evict();
+    }
+
+    public static synchronized long getCachedBytes() { return cachedBytes; }
+    public static synchronized int getSize() { return CACHE.size(); }
+
+    public static synchronized long getHitCount() { return hitCount; }
+    public static synchronized long getMissCount() { return missCount; }
+    public static synchronized long getEvictionCount() { return evictionCount; }
+    public static synchronized long getDiskHitCount() { return diskHitCount; }
+    /**
+     * @return the number of disk cache operations (create, read, write, delete) that failed
+     */
+    public static synchronized long getDiskFailureCount() { return diskFailureCount; }
+    public static synchronized void resetCounters() {
+        hitCount         = 0;
+        missCount        = 0;
+        evictionCount    = 0;
+        diskHitCount     = 0;
+        diskFailureCount = 0;
+    }
+
+    public static synchronized Path getCacheDirectory() { return cacheDirectory; }
+    /**
+     * Sets the directory where rendered rasters will be stored between launches,
+     * null disables the disk cache. The directory will be created if needed.
+     * @param DIRECTORY directory for the raster files or null
+     */
+    public static synchronized void setCacheDirectory(final Path DIRECTORY) {
+        cacheDirectory = DIRECTORY;
+        if (null == cacheDirectory) return;
+        try {
+            Files.createDirectories(cacheDirectory);
+        } catch (IOException exception) {
+            cacheDirectory = null;
+            diskFailureCount++;
+        }
+    }
+
+    /**
+     * Deletes all raster files in the cache directory.
+     */
+    public static synchronized void purgeCacheDirectory() {
+        if (null == cacheDirectory) return;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDirectory, "*" + FILE_SUFFIX)) {
+            for (Path file : files) { Files.deleteIfExists(file); }
+        } catch (IOException exception) {
+            diskFailureCount++;
+        }
+    }
+
+    public static synchronized void clear() {
+        CACHE.clear();
+        cachedBytes = 0;
+    }
+
+    static WritableImage acquire(final Key KEY, final Object OWNER, final Supplier<WritableImage> RENDERER) {
+        synchronized (RasterCache.class) {
+            if (!enabled) return RENDERER.get();
+            Entry entry = CACHE.get(KEY);
+            if (null != entry) {
+                hitCount++;
+                entry.addOwner(OWNER);
+                return entry.image;
+            }
+            missCount++;
+        }
+        return put(KEY, OWNER, loadOrRender(KEY, RENDERER));
+    }
+
+    /**
+     * Same as acquire() but only looks into the memory cache, which makes it safe to
+     * call on the FX application thread without any disk access.
+     */
+    static synchronized WritableImage acquireInMemory(final Key KEY, final Object OWNER) {
+        if (!enabled) return null;
+        Entry entry = CACHE.get(KEY);
+        if (null == entry) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        entry.addOwner(OWNER);
+        return entry.image;
+    }
+
+    static WritableImage acquireIfPresent(final Key KEY, final Object OWNER) {
+        final Path directory;
+        synchronized (RasterCache.class) {
+            if (!enabled) return null;
+            Entry entry = CACHE.get(KEY);
+            if (null != entry) {
+                hitCount++;
+                entry.addOwner(OWNER);
+                return entry.image;
+            }
+            directory = cacheDirectory;
+        }
+        final WritableImage LOADED = null == directory ? null : load(directory, KEY);
+        return null == LOADED ? null : put(KEY, OWNER, LOADED);
+    }
+
+    /**
+     * Loads the raster from the cache directory or renders and stores it. Doesn't touch
+     * the memory cache and doesn't hold its lock, so it's meant to be called on a render
+     * thread, the result has to be handed to put() afterwards.
+     */
+    static WritableImage loadOrRender(final Key KEY, final Supplier<WritableImage> RENDERER) {
+        final Path DIRECTORY = isEnabled() ? getCacheDirectory() : null;
+        if (null == DIRECTORY) return RENDERER.get();
+        final WritableImage LOADED = load(DIRECTORY, KEY);
+        if (null != LOADED) return LOADED;
+        final WritableImage IMAGE = RENDERER.get();
+        store(DIRECTORY, KEY, IMAGE);
+        return IMAGE;
+    }
+
+    /**
+     * Adds the given raster to the memory cache. If another thread added a raster for the
+     * same key in the meantime, that raster is returned instead.
+     */
+    static synchronized WritableImage put(final Key KEY, final Object OWNER, final WritableImage IMAGE) {
+        if (!enabled) return IMAGE;
+        Entry entry = CACHE.get(KEY);
+        if (null == entry) {
+            entry = new Entry(IMAGE);
+            CACHE.put(KEY, entry);
+            cachedBytes += entry.bytes;
+        }
+        entry.addOwner(OWNER);
+        evict();
+        return entry.image;
+    }
+
+    static synchronized void release(final Key KEY, final Object OWNER) {
+        if (null == KEY) return;
+        Entry entry = CACHE.get(KEY);
+        if (null == entry) return;
+        entry.removeOwner(OWNER);
+        evict();
+    }
+
+    private static WritableImage load(final Path DIRECTORY, final Key KEY) {
+        final Path FILE = DIRECTORY.resolve(KEY.getFileName());
+        if (!Files.isRegularFile(FILE)) return null;
+        final byte[] KEY_BYTES = KEY.encode();
+        final int    HEADER    = FILE_HEADER_BYTES + KEY_BYTES.length;
+        try (FileChannel channel = FileChannel.open(FILE, StandardOpenOption.READ)) {
+            final long BYTES = (long) KEY.width * KEY.height * 4L;
+            if (channel.size() == HEADER + BYTES) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                ByteBuffer       stored = buffer.duplicate();
+                stored.position(FILE_HEADER_BYTES).limit(HEADER);
+                if (buffer.getInt(0)  == FILE_MAGIC && buffer.getInt(4)  == FILE_VERSION &&
+                    buffer.getInt(8)  == KEY.width  && buffer.getInt(12) == KEY.height &&
+                    buffer.getInt(16) == KEY_BYTES.length && stored.equals(ByteBuffer.wrap(KEY_BYTES))) {
+                    buffer.position(HEADER);
+                    WritableImage image = new WritableImage(KEY.width, KEY.height);
+                    image.getPixelWriter().setPixels(0, 0, KEY.width, KEY.height, PixelFormat.getByteBgraPreInstance(), buffer.slice(), KEY.width * 4);
+                    synchronized (RasterCache.class) { diskHitCount++; }
+                    return image;
+                }
+            }
+        } catch (IOException exception) {
+            countDiskFailure();
+            return null;
+        }
+        // Stale or broken file or a file of another key with the same name
+        try {
+            Files.deleteIfExists(FILE);
+        } catch (IOException exception) {
+            countDiskFailure();
+        }
+        return null;
+    }
+
+    private static void store(final Path DIRECTORY, final Key KEY, final WritableImage IMAGE) {
+        final int WIDTH  = (int) IMAGE.getWidth();
+        final int HEIGHT = (int) IMAGE.getHeight();
+        if (WIDTH != KEY.width || HEIGHT != KEY.height) return;
+        final byte[]     KEY_BYTES = KEY.encode();
+        final ByteBuffer BUFFER    = ByteBuffer.allocate(FILE_HEADER_BYTES + KEY_BYTES.length + WIDTH * HEIGHT * 4);
+        BUFFER.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(WIDTH).putInt(HEIGHT).putInt(KEY_BYTES.length).put(KEY_BYTES);
+        // Premultiplied ARGB ints in little endian order which is BGRA byte by byte
+        IMAGE.getPixelReader().getPixels(0, 0, WIDTH, HEIGHT, PixelFormat.getByteBgraPreInstance(), BUFFER, WIDTH * 4);
+        BUFFER.rewind();
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(DIRECTORY, "raster", ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (BUFFER.hasRemaining()) { channel.write(BUFFER); }
+            }
+            try {
+                Files.move(temp, DIRECTORY.resolve(KEY.getFileName()), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException exception) {
+                Files.move(temp, DIRECTORY.resolve(KEY.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException exception) {
+            countDiskFailure();
+            if (null != temp) {
+                try { Files.deleteIfExists(temp); } catch (IOException deleteException) { countDiskFailure(); }
+            }
+        }
+    }
+
+    private static synchronized void countDiskFailure() { diskFailureCount++; }
+
+    private static void evict() {
+        Iterator<Entry> iterator = CACHE.values().iterator();
+        while (cachedBytes > maxBytes && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.isInUse()) continue;
+            cachedBytes -= entry.bytes;
+            evictionCount++;
+            iterator.remove();
+        }
+    }
+
+
+    // ******************** Inner Classes *************************************
+    static final class Key {
+        private final CompiledStops              stops;
+        private final int                        phase;
+        private final int                        width;
+        private final int                        height;
+        private final double                     centerX;
+        private final double                     centerY;
+        private final ConicalGradient.RasterType type;
+        private final double                     innerRadius;
+        private final double                     outerRadius;
+        private final double                     scale;
+        private final int                        hashCode;
+
+        Key(final CompiledStops STOPS, final int PHASE, final int WIDTH, final int HEIGHT, final double CENTER_X, final double CENTER_Y,
+            final ConicalGradient.RasterType TYPE, final double INNER_RADIUS, final double OUTER_RADIUS, final double SCALE) {
+            stops       = STOPS;
+            phase       = PHASE;
+            width       = WIDTH;
+            height      = HEIGHT;
+            centerX     = CENTER_X;
+            centerY     = CENTER_Y;
+            type        = TYPE;
+            innerRadius = INNER_RADIUS;
+            outerRadius = OUTER_RADIUS;
+            scale       = SCALE;
+            int result = stops.hashCode();
+            result = 31 * result + phase;
+            result = 31 * result + width;
+            result = 31 * result + height;
+            result = 31 * result + Double.hashCode(centerX);
+            result = 31 * result + Double.hashCode(centerY);
+            result = 31 * result + type.hashCode();
+            result = 31 * result + Double.hashCode(innerRadius);
+            result = 31 * result + Double.hashCode(outerRadius);
+            result = 31 * result + Double.hashCode(scale);
+            hashCode = result;
+        }
+
+        @Override public boolean equals(final Object OBJECT) {
+            if (this == OBJECT) return true;
+            if (!(OBJECT instanceof Key)) return false;
+            Key key = (Key) OBJECT;
+            return hashCode == key.hashCode && phase == key.phase && width == key.width && height == key.height && type == key.type &&
+                   Double.compare(centerX, key.centerX) == 0 && Double.compare(centerY, key.centerY) == 0 &&
+                   Double.compare(innerRadius, key.innerRadius) == 0 && Double.compare(outerRadius, key.outerRadius) == 0 &&
+                   Double.compare(scale, key.scale) == 0 &&
+                   stops.equals(key.stops);
+        }
+
+        ConicalGradient.RasterType getType() { return type; }
+
+        // True if both keys only differ in the radii and the annulus of this key contains the annulus of the given key
+        boolean covers(final Key KEY) {
+            return phase == KEY.phase && width == KEY.width && height == KEY.height && type == KEY.type &&
+                   Double.compare(centerX, KEY.centerX) == 0 && Double.compare(centerY, KEY.centerY) == 0 &&
+                   Double.compare(scale, KEY.scale) == 0 && innerRadius <= KEY.innerRadius && outerRadius >= KEY.outerRadius &&
+                   stops.equals(KEY.stops);
+        }
+
+        @Override public int hashCode() { return hashCode; }
+
+        // All fields in a form that doesn't depend on the JVM, stored in the header of the raster files
+        byte[] encode() {
+            final ByteBuffer BUFFER = ByteBuffer.allocate(4 + stops.size() * 12 + 56);
+            BUFFER.putInt(stops.size());
+            for (int i = 0; i < stops.size(); i++) { BUFFER.putDouble(stops.getOffset(i)).putInt(stops.getArgb(i)); }
+            BUFFER.putInt(phase).putInt(width).putInt(height).putDouble(centerX).putDouble(centerY).putInt(type.ordinal())
+                  .putDouble(innerRadius).putDouble(outerRadius).putDouble(scale);
+            return BUFFER.array();
+        }
+
+        // FNV-1a hash that doesn't depend on the JVM, used to name the raster files
+        long getStableHash() {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < stops.size(); i++) {
+                hash = fnv(hash, Double.doubleToLongBits(stops.getOffset(i)));
+                hash = fnv(hash, stops.getArgb(i));
+            }
+            hash = fnv(hash, phase);
+            hash = fnv(hash, width);
+            hash = fnv(hash, height);
+            hash = fnv(hash, Double.doubleToLongBits(centerX));
+            hash = fnv(hash, Double.doubleToLongBits(centerY));
+            hash = fnv(hash, type.ordinal());
+            hash = fnv(hash, Double.doubleToLongBits(innerRadius));
+            hash = fnv(hash, Double.doubleToLongBits(outerRadius));
+            hash = fnv(hash, Double.doubleToLongBits(scale));
+            return hash;
+        }
+
+        String getFileName() { return String.format(Locale.US, "%016x_%dx%d%s", getStableHash(), width, height, FILE_SUFFIX); }
+
+        private static long fnv(long hash, final long VALUE) {
+            for (int i = 0; i < 64; i += 8) {
+                hash ^= (VALUE >>> i) & 0xFF;
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        private final WritableImage               image;
+        private final long                        bytes;
+        private final List<WeakReference<Object>> owners;
+
+        Entry(final WritableImage IMAGE) {
+            image  = IMAGE;
+            bytes  = (long) IMAGE.getWidth() * (long) IMAGE.getHeight() * 4L;
+            owners = new ArrayList<>(2);
+        }
+
+        void addOwner(final Object OWNER) {
+            for (WeakReference<Object> owner : owners) { if (owner.get() == OWNER) return; }
+            owners.add(new WeakReference<>(OWNER));
+        }
+
+        void removeOwner(final Object OWNER) {
+            owners.removeIf(owner -> null == owner.get() || owner.get() == OWNER);
+        }
+
+        // Owners that have been garbage collected without releasing their raster don't keep it alive
+        boolean isInUse() {
+            owners.removeIf(owner -> null == owner.get());
+            return !owners.isEmpty();
+        }
+    }
+}
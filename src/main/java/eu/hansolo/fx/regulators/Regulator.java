@@ -34,7 +34,9 @@ import javafx.scene.CacheHint;
 import javafx.scene.Group;
 import javafx.scene.effect.BlurType;
 import javafx.scene.effect.DropShadow;
+import javafx.scene.effect.Effect;
 import javafx.scene.effect.InnerShadow;
+import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundFill;
@@ -48,15 +50,12 @@ import javafx.scene.shape.ArcType;
 import javafx.scene.shape.Circle;
 import javafx.scene.shape.Shape;
 import javafx.scene.shape.StrokeLineCap;
-import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.scene.transform.Rotate;
 import javafx.scene.transform.Scale;
 import org.kordamp.ikonli.Ikon;
 import org.kordamp.ikonli.javafx.FontIcon;
 
-import java.util.Locale;
-
 
 public class Regulator extends Region implements RegulatorControl {
     private static final Color          DEFAULT_COLOR    = Color.rgb(66,71,79);
@@ -68,6 +67,11 @@ public class Regulator extends Region implements RegulatorControl {
     private static final double         MAXIMUM_HEIGHT   = 1024;
     private static final double         BAR_START_ANGLE  = -130;
     private static final double         ANGLE_RANGE      = 280;
+    private static final double         SIZE_THRESHOLD   = 0.5;
+    private static final int            DIRTY_GEOMETRY   = 1;
+    private static final int            DIRTY_PAINT      = 1 << 1;
+    private static final int            DIRTY_VALUE      = 1 << 2;
+    private static final int            DIRTY_TEXT       = 1 << 3;
     private final        RegulatorEvent TARGET_SET_EVENT = new RegulatorEvent(RegulatorEvent.TARGET_SET);
     private double                      size;
     private Arc                         barArc;
@@ -79,6 +83,9 @@ public class Regulator extends Region implements RegulatorControl {
     private StackPane                   iconPane;
     private FontIcon                    icon;
     private Pane                        pane;
+    private ImageView                   bezelBack;
+    private ImageView                   bezelFront;
+    private ImageView                   bezelHighlight;
     private DropShadow                  dropShadow;
     private InnerShadow                 highlight;
     private InnerShadow                 innerShadow;
@@ -99,7 +106,16 @@ public class Regulator extends Region implements RegulatorControl {
     private ObjectProperty<Color>       color;
     private ObjectProperty<Color>       indicatorColor;
     private BooleanProperty             selected;
-    private String                      formatString;
+    private BooleanProperty             coalescing;
+    private BooleanProperty             bakedBezel;
+    private int                         dirty;
+    private Color                       paintedColor;
+    private Color                       darkerColor;
+    private Color                       darkestColor;
+    private Color                       paintedSymbolColor;
+    private long                        droppedUpdates;
+    private ValueFormat                 textFormat;
+    private TextFitter                  textFitter;
     private double                      angleStep;
 
 
@@ -131,8 +147,8 @@ public class Regulator extends Region implements RegulatorControl {
         decimals     = new IntegerPropertyBase(0) {
             @Override public void set(final int VALUE) {
                 super.set(clamp(0, 2, VALUE));
-                formatString = new StringBuilder("%.").append(Integer.toString(decimals.get())).append("f").append(getUnit()).toString();
-                redraw();
+                textFormat.setDecimals(get());
+                invalidate(DIRTY_TEXT);
             }
             @Override public Object getBean() { return Regulator.this; }
             @Override public String getName() { return "decimals"; }
@@ -140,8 +156,8 @@ public class Regulator extends Region implements RegulatorControl {
         unit         = new StringPropertyBase("") {
             @Override public void set(final String VALUE) {
                 super.set(VALUE.equals("%") ? "%%" : VALUE);
-                formatString = new StringBuilder("%.").append(Integer.toString(decimals.get())).append("f").append(get()).toString();
-                redraw();
+                textFormat.setUnit(get());
+                invalidate(DIRTY_TEXT);
             }
             @Override public Object getBean() { return Regulator.this; }
             @Override public String getName() { return "unit"; }
@@ -149,7 +165,7 @@ public class Regulator extends Region implements RegulatorControl {
         symbolColor  = new ObjectPropertyBase<Color>(Color.TRANSPARENT) {
             @Override protected void invalidated() {
                 set(null == get() ? Color.WHITE : get());
-                redraw();
+                invalidate(DIRTY_PAINT);
             }
             @Override public Object getBean() { return Regulator.this; }
             @Override public String getName() { return "symbolColor"; }
@@ -157,7 +173,7 @@ public class Regulator extends Region implements RegulatorControl {
         iconColor    = new ObjectPropertyBase<Color>(Color.TRANSPARENT) {
             @Override protected void invalidated() {
                 set(null == get() ? Color.WHITE : get());
-                redraw();
+                invalidate(DIRTY_PAINT);
             }
             @Override public Object getBean() { return Regulator.this; }
             @Override public String getName() { return "iconColor"; }
@@ -165,7 +181,7 @@ public class Regulator extends Region implements RegulatorControl {
         textColor    = new ObjectPropertyBase<Color>(Color.WHITE) {
             @Override protected void invalidated() {
                 set(null == get() ? Color.WHITE : get());
-                redraw();
+                invalidate(DIRTY_PAINT);
             }
             @Override public Object getBean() { return Regulator.this; }
             @Override public String getName() { return "textColor"; }
@@ -173,7 +189,7 @@ public class Regulator extends Region implements RegulatorControl {
         barColor     = new ObjectPropertyBase<Color>(Color.CYAN) {
             @Override protected void invalidated() {
                 super.set(null == get() ? Color.CYAN : get());
-                redraw();
+                invalidate(DIRTY_PAINT);
             }
             @Override public Object getBean() { return Regulator.this; }
             @Override public String getName() { return "barColor"; }
@@ -181,7 +197,7 @@ public class Regulator extends Region implements RegulatorControl {
         color        = new ObjectPropertyBase<Color>(DEFAULT_COLOR) {
             @Override protected void invalidated() {
                 super.set(null == get() ? DEFAULT_COLOR : get());
-                redraw();
+                invalidate(DIRTY_PAINT);
             }
             @Override public Object getBean() { return Regulator.this; }
             @Override public String getName() { return "color"; }
@@ -192,21 +208,23 @@ public class Regulator extends Region implements RegulatorControl {
             @Override public String getName() { return "indicatorColor"; }
         };
         selected       = new BooleanPropertyBase(false) {
-            @Override protected void invalidated() {
-                if (get()) {
-                    indicator.setFill(getIndicatorColor());
-                    indicator.setStroke(getIndicatorColor().darker().darker());
-                    indicator.setEffect(indicatorGlow);
-                } else {
-                    indicator.setFill(getColor().darker());
-                    indicator.setStroke(getColor().darker().darker());
-                    indicator.setEffect(null);
-                }
-            }
+            @Override protected void invalidated() { invalidate(DIRTY_PAINT); }
             @Override public Object getBean() { return Regulator.this; }
             @Override public String getName() { return "selected"; }
         };
-        formatString = new StringBuilder("%.").append(Integer.toString(decimals.get())).append("f").append(unit.get()).toString();
+        coalescing     = new BooleanPropertyBase(false) {
+            @Override protected void invalidated() { if (!get()) { flush(); } }
+            @Override public Object getBean() { return Regulator.this; }
+            @Override public String getName() { return "coalescing"; }
+        };
+        bakedBezel     = new BooleanPropertyBase(false) {
+            @Override protected void invalidated() { invalidate(DIRTY_GEOMETRY); }
+            @Override public Object getBean() { return Regulator.this; }
+            @Override public String getName() { return "bakedBezel"; }
+        };
+        textFormat   = new ValueFormat(decimals.get(), unit.get());
+        textFitter   = new TextFitter();
+        dirty        = DIRTY_PAINT;
         angleStep    = ANGLE_RANGE / (maxValue.get() - minValue.get());
         init();
         initGraphics();
@@ -254,7 +272,8 @@ public class Regulator extends Region implements RegulatorControl {
         mainCircle = new Circle();
         mainCircle.setFill(color.get().darker().darker());
 
-        text = new Text(String.format(Locale.US, formatString, getTargetValue()));
+        textFormat.format(getTargetValue());
+        text = new Text(textFormat.toString());
         text.setFill(Color.WHITE);
         text.setTextOrigin(VPos.CENTER);
 
@@ -283,7 +302,19 @@ public class Regulator extends Region implements RegulatorControl {
 
         iconPane = new StackPane(symbol, icon);
 
-        pane = new Pane(barArc, ring, mainCircle, text, indicatorGroup, iconPane);
+        bezelBack = new ImageView();
+        bezelBack.setMouseTransparent(true);
+        bezelBack.setVisible(false);
+
+        bezelFront = new ImageView();
+        bezelFront.setMouseTransparent(true);
+        bezelFront.setVisible(false);
+
+        bezelHighlight = new ImageView();
+        bezelHighlight.setMouseTransparent(true);
+        bezelHighlight.setVisible(false);
+
+        pane = new Pane(bezelBack, barArc, bezelFront, ring, mainCircle, text, indicatorGroup, iconPane, bezelHighlight);
         pane.setPrefSize(PREFERRED_HEIGHT, PREFERRED_HEIGHT);
         pane.setBackground(new Background(new BackgroundFill(color.get().darker(), new CornerRadii(1024), Insets.EMPTY)));
         pane.setEffect(highlight);
@@ -292,10 +323,15 @@ public class Regulator extends Region implements RegulatorControl {
     }
 
     private void registerListeners() {
-        widthProperty().addListener(o -> resize());
-        heightProperty().addListener(o -> resize());
+        RenderScale.addListener(this, () -> { if (isBakedBezel()) { invalidate(DIRTY_GEOMETRY); } });
         disabledProperty().addListener(o -> setOpacity(isDisabled() ? 0.4 : 1.0));
-        targetValueProperty().addListener(o -> rotate(targetValue.get()));
+        targetValueProperty().addListener(o -> {
+            if (isCoalescing()) {
+                if ((dirty & DIRTY_VALUE) != 0) { droppedUpdates++; } else { invalidate(DIRTY_VALUE); }
+            } else {
+                rotate(targetValue.get());
+            }
+        });
         ring.addEventHandler(MouseEvent.MOUSE_PRESSED, e -> { if (isDisabled()) return; touchRotate(e.getSceneX(), e.getSceneY()); });
         ring.addEventHandler(MouseEvent.MOUSE_DRAGGED, e -> { if (isDisabled()) return; touchRotate(e.getSceneX(), e.getSceneY()); });
         ring.addEventHandler(MouseEvent.MOUSE_RELEASED, e -> { if (isDisabled()) return; fireEvent(TARGET_SET_EVENT); });
@@ -351,6 +387,36 @@ public class Regulator extends Region implements RegulatorControl {
     @Override public void setSelected(final boolean SELECTED) { selected.set(SELECTED); }
     @Override public BooleanProperty selectedProperty() { return selected; }
 
+    /**
+     * If coalescing is enabled a new target value is only recorded and the control will
+     * be updated with the latest value once per pulse, which saves the formatting and
+     * layout of the text for values that would never be visible. The target value
+     * property always reports the latest value.
+     * @return true if updates of the target value are coalesced
+     */
+    public boolean isCoalescing() { return coalescing.get(); }
+    public void setCoalescing(final boolean COALESCING) { coalescing.set(COALESCING); }
+    public BooleanProperty coalescingProperty() { return coalescing; }
+
+    /**
+     * If the bezel is baked the background, the ring and the main circle are rendered
+     * with their effects into images, which are shared by all regulators with the
+     * same size, color and render scale. This saves the effect processing in every
+     * frame, the images will only be rendered again if the size or the color changes.
+     * The highlight of the rim is drawn from an image on top of the live nodes, so
+     * the control looks the same in both modes.
+     * @return true if the static parts of the control are drawn from cached images
+     */
+    public boolean isBakedBezel() { return bakedBezel.get(); }
+    public void setBakedBezel(final boolean BAKED) { bakedBezel.set(BAKED); }
+    public BooleanProperty bakedBezelProperty() { return bakedBezel; }
+
+    /**
+     * @return the number of value updates that have been replaced by a newer value before they were drawn
+     */
+    public long getDroppedUpdates() { return droppedUpdates; }
+    public void resetDroppedUpdates() { droppedUpdates = 0; }
+
     public void setSymbolPath(final double SCALE_X, final double SCALE_Y, final String PATH) {
         if (PATH.isEmpty()) {
             symbol.setVisible(false);
@@ -368,7 +434,7 @@ public class Regulator extends Region implements RegulatorControl {
 
     public void setIcon(final Ikon ICON) {
         icon.setIconCode(ICON);
-        resize();
+        invalidate(DIRTY_GEOMETRY);
     }
 
     private <T extends Number> T clamp(final T MIN, final T MAX, final T VALUE) {
@@ -377,14 +443,6 @@ public class Regulator extends Region implements RegulatorControl {
         return VALUE;
     }
 
-    private void adjustTextSize(final Text TEXT, final double MAX_WIDTH, double fontSize) {
-        final String FONT_NAME = TEXT.getFont().getName();
-        while (TEXT.getLayoutBounds().getWidth() > MAX_WIDTH && fontSize > 0) {
-            fontSize -= 0.005;
-            TEXT.setFont(new Font(FONT_NAME, fontSize));
-        }
-    }
-
     private void touchRotate(final double X, final double Y) {
         Point2D p      = sceneToLocal(X, Y);
         double  deltaX = p.getX() - (pane.getLayoutX() + size * 0.5);
@@ -405,11 +463,43 @@ public class Regulator extends Region implements RegulatorControl {
 
 
     // ******************** Resizing ******************************************
+    @Override protected void layoutChildren() {
+        super.layoutChildren();
+        final double WIDTH  = getWidth() - getInsets().getLeft() - getInsets().getRight();
+        final double HEIGHT = getHeight() - getInsets().getTop() - getInsets().getBottom();
+        final double SIZE   = WIDTH < HEIGHT ? WIDTH : HEIGHT;
+        // Width and height changes are handled together here, small size changes only recenter the pane
+        if (Math.abs(SIZE - size) >= SIZE_THRESHOLD) {
+            dirty |= DIRTY_GEOMETRY;
+        } else if ((dirty & DIRTY_GEOMETRY) == 0 && size > 0) {
+            pane.relocate((getWidth() - size) * 0.5, (getHeight() - size) * 0.5);
+        }
+        flush();
+    }
+
+    // Changes only set their dirty bit, the affected nodes are updated once per pulse
+    private void invalidate(final int FLAGS) {
+        dirty |= FLAGS;
+        requestLayout();
+    }
+
+    private void flush() {
+        final int DIRTY = dirty;
+        if (0 == DIRTY) return;
+        dirty = 0;
+        if ((DIRTY & DIRTY_GEOMETRY) != 0) {
+            resize();
+        } else if ((DIRTY & (DIRTY_VALUE | DIRTY_TEXT)) != 0) {
+            rotate(targetValue.get());
+        }
+        if ((DIRTY & DIRTY_PAINT) != 0) { redraw(); }
+    }
+
     private void rotate(final double VALUE) {
         drawBar(VALUE);
         indicatorRotate.setAngle((VALUE - minValue.get()) * angleStep - ANGLE_RANGE * 0.5);
-        text.setText(String.format(Locale.US, formatString, VALUE));
-        adjustTextSize(text, size * 0.48, size * 0.216);
+        if (textFormat.format(VALUE)) { text.setText(textFormat.toString()); }
+        textFitter.fit(text, size * 0.48, size * 0.216);
         text.setLayoutX((size - text.getLayoutBounds().getWidth()) * 0.5);
     }
 
@@ -476,21 +566,94 @@ public class Regulator extends Region implements RegulatorControl {
             iconPane.setPrefSize(size * 0.112, size * 0.112);
             iconPane.relocate((size - iconPane.getPrefWidth()) * 0.5, size * 0.62);
 
-            redraw();
+            updateBezel();
+            rotate(targetValue.get());
         }
     }
 
+    private void updateBezel() {
+        if (isBakedBezel() && size > 0) {
+            final double SCALE = RenderScale.of(this);
+            bezelBack.setImage(BezelCache.acquire(Regulator.class, BezelCache.Layer.BACK, size, color.get(), SCALE, () -> createBezelBackground(color.get().darker(), null)));
+            bezelFront.setImage(BezelCache.acquire(Regulator.class, BezelCache.Layer.FRONT, size, color.get(), SCALE, this::createBezelFront));
+            bezelHighlight.setImage(BezelCache.acquireHighlight(Regulator.class, size, SCALE, FILL -> createBezelBackground(FILL, highlight)));
+            for (ImageView layer : new ImageView[] { bezelBack, bezelFront, bezelHighlight }) {
+                layer.setFitWidth(size);
+                layer.setFitHeight(size);
+            }
+            if (bezelBack.isVisible()) return;
+            bezelBack.setVisible(true);
+            bezelFront.setVisible(true);
+            bezelHighlight.setVisible(true);
+            // The ring stays in the scene because it receives the mouse events
+            ring.setEffect(null);
+            ring.setOpacity(0);
+            mainCircle.setVisible(false);
+            pane.setBackground(null);
+            pane.setEffect(null);
+        } else if (bezelBack.isVisible()) {
+            for (ImageView layer : new ImageView[] { bezelBack, bezelFront, bezelHighlight }) {
+                layer.setImage(null);
+                layer.setVisible(false);
+            }
+            ring.setEffect(dropShadow);
+            ring.setOpacity(1);
+            mainCircle.setVisible(true);
+            pane.setBackground(new Background(new BackgroundFill(color.get().darker(), new CornerRadii(1024), Insets.EMPTY)));
+            pane.setEffect(highlight);
+        }
+    }
+
+    private Region createBezelBackground(final Color FILL, final Effect EFFECT) {
+        Pane bezelPane = new Pane();
+        bezelPane.setBackground(new Background(new BackgroundFill(FILL, new CornerRadii(1024), Insets.EMPTY)));
+        bezelPane.setEffect(EFFECT);
+        return bezelPane;
+    }
+
+    private Region createBezelFront() {
+        final double CENTER = PREFERRED_WIDTH * 0.5;
+        Shape bezelRing = Shape.subtract(new Circle(CENTER, CENTER, PREFERRED_WIDTH * 0.42),
+                                         new Circle(CENTER, CENTER, PREFERRED_WIDTH * 0.3));
+        bezelRing.setFill(color.get());
+        bezelRing.setEffect(dropShadow);
+        bezelRing.getTransforms().setAll(new Scale(scaleFactor, scaleFactor, 0, 0));
+        Circle bezelCircle = new Circle(mainCircle.getCenterX(), mainCircle.getCenterY(), mainCircle.getRadius(), color.get().darker().darker());
+        // Cached like ring and mainCircle, the cache rasterizes the shapes and effects slightly differently
+        bezelRing.setCache(true);
+        bezelRing.setCacheHint(CacheHint.SPEED);
+        bezelCircle.setCache(true);
+        bezelCircle.setCacheHint(CacheHint.SPEED);
+        return new Pane(bezelRing, bezelCircle);
+    }
+
     private void redraw() {
-        pane.setBackground(new Background(new BackgroundFill(color.get().darker(), new CornerRadii(1024), Insets.EMPTY)));
-        mainCircle.setFill(color.get().darker().darker());
-        ring.setFill(color.get());
-        indicator.setFill(isSelected() ? indicatorColor.get() : color.get().darker());
-        indicator.setStroke(isSelected() ? indicatorColor.get().darker().darker() : color.get().darker().darker());
-        symbol.setBackground(new Background(new BackgroundFill(symbolColor.get(), CornerRadii.EMPTY, Insets.EMPTY)));
+        final Color COLOR = color.get();
+        if (!COLOR.equals(paintedColor)) {
+            paintedColor = COLOR;
+            darkerColor  = COLOR.darker();
+            darkestColor = darkerColor.darker();
+            if (!bezelBack.isVisible()) { pane.setBackground(new Background(new BackgroundFill(darkerColor, new CornerRadii(1024), Insets.EMPTY))); }
+            mainCircle.setFill(darkestColor);
+            ring.setFill(COLOR);
+            updateBezel();
+        }
+        if (isSelected()) {
+            indicator.setFill(indicatorColor.get());
+            indicator.setStroke(indicatorColor.get().darker().darker());
+            indicator.setEffect(indicatorGlow);
+        } else {
+            indicator.setFill(darkerColor);
+            indicator.setStroke(darkestColor);
+            indicator.setEffect(null);
+        }
+        if (!symbolColor.get().equals(paintedSymbolColor)) {
+            paintedSymbolColor = symbolColor.get();
+            symbol.setBackground(new Background(new BackgroundFill(paintedSymbolColor, CornerRadii.EMPTY, Insets.EMPTY)));
+        }
         icon.setFill(iconColor.get());
         text.setFill(textColor.get());
         barArc.setStroke(barColor.get());
-        rotate(targetValue.get());
     }
 
 
@@ -16,10 +16,12 @@
 
 package eu.hansolo.fx.regulators;
 
+import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.Property;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
@@ -112,6 +114,16 @@ public class RegulatorBuilder<B extends RegulatorBuilder<B>> {
         return (B)this;
     }
 
+    public final B coalescing(final boolean COALESCING) {
+        properties.put("coalescing", new SimpleBooleanProperty(COALESCING));
+        return (B)this;
+    }
+
+    public final B bakedBezel(final boolean BAKED) {
+        properties.put("bakedBezel", new SimpleBooleanProperty(BAKED));
+        return (B)this;
+    }
+
     public final B onTargetSet(final EventHandler<RegulatorEvent> HANDLER) {
         properties.put("onTargetSet", new SimpleObjectProperty<>(HANDLER));
         return (B)this;
@@ -253,6 +265,10 @@ public class RegulatorBuilder<B extends RegulatorBuilder<B>> {
                                       ((StringProperty) properties.get(key)).get());
             } else if ("icon".equals(key)) {
                 CONTROL.setIcon(((ObjectProperty<Ikon>) properties.get(key)).get());
+            } else if ("coalescing".equals(key)) {
+                CONTROL.setCoalescing(((BooleanProperty) properties.get(key)).get());
+            } else if ("bakedBezel".equals(key)) {
+                CONTROL.setBakedBezel(((BooleanProperty) properties.get(key)).get());
             } else if ("onTargetSet".equals(key)) {
                 CONTROL.setOnTargetSet(((ObjectProperty<EventHandler>) properties.get(key)).get());
             }
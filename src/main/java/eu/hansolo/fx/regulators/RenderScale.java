@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.regulators;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.stage.Window;
+
+import java.lang.reflect.Method;
+
+
+/**
+ * Looks up the output scale (physical pixels per logical pixel) of the window a node
+ * is shown in. The output scale of windows is only available since JavaFX 9, so it
+ * is looked up by reflection and 1.0 will be used on older versions.
+ */
+final class RenderScale {
+    private static final Method OUTPUT_SCALE_X          = getMethod("getOutputScaleX");
+    private static final Method OUTPUT_SCALE_X_PROPERTY = getMethod("outputScaleXProperty");
+
+
+    // ******************** Constructors **************************************
+    private RenderScale() {}
+
+
+    // ******************** Methods *******************************************
+    static double of(final Node NODE) {
+        final Scene SCENE = NODE.getScene();
+        return null == SCENE ? 1.0 : of(SCENE.getWindow());
+    }
+    static double of(final Window WINDOW) {
+        if (null == WINDOW || null == OUTPUT_SCALE_X) return 1.0;
+        try {
+            double scale = (double) OUTPUT_SCALE_X.invoke(WINDOW);
+            return scale > 0 ? scale : 1.0;
+        } catch (Exception exception) {
+            return 1.0;
+        }
+    }
+
+    /**
+     * Calls ON_CHANGE whenever the output scale of the window of the given node changed,
+     * e.g. because the node was added to another window or the window was moved to a
+     * screen with a different scale.
+     * @param NODE the node to observe
+     * @param ON_CHANGE called on the FX application thread if the output scale changed
+     */
+    static void addListener(final Node NODE, final Runnable ON_CHANGE) {
+        if (null == OUTPUT_SCALE_X_PROPERTY) return;
+        final InvalidationListener   SCALE_LISTENER  = o -> ON_CHANGE.run();
+        final ChangeListener<Window> WINDOW_LISTENER = (o, oldWindow, newWindow) -> {
+            if (null != oldWindow) { getScaleProperty(oldWindow).removeListener(SCALE_LISTENER); }
+            if (null != newWindow) { getScaleProperty(newWindow).addListener(SCALE_LISTENER); }
+            ON_CHANGE.run();
+        };
+        final ChangeListener<Scene>  SCENE_LISTENER  = (o, oldScene, newScene) -> {
+            if (null != oldScene) { oldScene.windowProperty().removeListener(WINDOW_LISTENER); }
+            if (null != newScene) { newScene.windowProperty().addListener(WINDOW_LISTENER); }
+            WINDOW_LISTENER.changed(null, null == oldScene ? null : oldScene.getWindow(), null == newScene ? null : newScene.getWindow());
+        };
+        NODE.sceneProperty().addListener(SCENE_LISTENER);
+        if (null != NODE.getScene()) { SCENE_LISTENER.changed(null, null, NODE.getScene()); }
+    }
+
+    private static ObservableValue<?> getScaleProperty(final Window WINDOW) {
+        try {
+            return (ObservableValue<?>) OUTPUT_SCALE_X_PROPERTY.invoke(WINDOW);
+        } catch (Exception exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static Method getMethod(final String NAME) {
+        try {
+            return Window.class.getMethod(NAME);
+        } catch (NoSuchMethodException exception) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.regulators;
+
+import javafx.scene.Group;
+import javafx.scene.shape.Arc;
+import javafx.scene.shape.ArcType;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.StrokeLineCap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Draws a bar with a conical gradient as a row of solid colored arc segments, each
+ * one colored with the color of the gradient at the center of the segment. In
+ * contrast to an ImagePattern no raster is needed, so building the bar only costs
+ * one color lookup per segment and resizing only moves the arcs. The segments have
+ * butt caps, the round ends of the bar are separate circles, so no cap paints over
+ * a neighbouring segment.
+ */
+final class SegmentedBar extends Group {
+    private static final double SEGMENT_LENGTH = 4;
+    private static final int    MIN_SEGMENTS   = 12;
+    private static final int    MAX_SEGMENTS   = 360;
+    private final List<Arc>     segments;
+    private final Circle        startCap;
+    private final Circle        endCap;
+    private double              centerX;
+    private double              centerY;
+    private double              radius;
+    private double              startAngle;
+    private double              segmentAngle;
+    private double              overlap;
+    private double              length;
+
+
+    // ******************** Constructors **************************************
+    SegmentedBar() {
+        segments = new ArrayList<>();
+        startCap = new Circle();
+        endCap   = new Circle();
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Splits the range into segments of about SEGMENT_LENGTH pixels along the arc and
+     * colors them with the given gradient. The arcs of the previous layout are reused.
+     * @param CENTER_X x of the center of the arc
+     * @param CENTER_Y y of the center of the arc
+     * @param RADIUS radius of the arc
+     * @param STROKE_WIDTH width of the bar
+     * @param START_ANGLE start angle of the bar in degrees like in Arc
+     * @param ANGLE_RANGE angle in degrees that is covered by the bar when it's full, clockwise
+     * @param GRADIENT gradient that is used for the colors of the segments
+     */
+    void update(final double CENTER_X, final double CENTER_Y, final double RADIUS, final double STROKE_WIDTH,
+                final double START_ANGLE, final double ANGLE_RANGE, final ConicalGradient GRADIENT) {
+        final int COUNT = (int) Math.max(MIN_SEGMENTS, Math.min(MAX_SEGMENTS, Math.round(RADIUS * Math.toRadians(ANGLE_RANGE) / SEGMENT_LENGTH)));
+        centerX      = CENTER_X;
+        centerY      = CENTER_Y;
+        radius       = RADIUS;
+        startAngle   = START_ANGLE;
+        segmentAngle = ANGLE_RANGE / COUNT;
+        // Let every segment reach half a pixel into the next one to avoid seams
+        overlap      = RADIUS > 0 ? Math.toDegrees(0.5 / RADIUS) : 0;
+
+        while (segments.size() > COUNT) { segments.remove(segments.size() - 1); }
+        while (segments.size() < COUNT) {
+            Arc segment = new Arc();
+            segment.setType(ArcType.OPEN);
+            segment.setFill(null);
+            segment.setStrokeLineCap(StrokeLineCap.BUTT);
+            segments.add(segment);
+        }
+        for (int i = 0; i < COUNT; i++) {
+            Arc    segment = segments.get(i);
+            double angle   = START_ANGLE - (i + 0.5) * segmentAngle;
+            segment.setCenterX(CENTER_X);
+            segment.setCenterY(CENTER_Y);
+            segment.setRadiusX(RADIUS);
+            segment.setRadiusY(RADIUS);
+            segment.setStrokeWidth(STROKE_WIDTH);
+            segment.setStartAngle(START_ANGLE - i * segmentAngle);
+            // Arc angles are counter clockwise from 3 o'clock, the gradient angles clockwise from 12 o'clock
+            segment.setStroke(GRADIENT.getColorAtAngle(90 - angle));
+        }
+        startCap.setRadius(STROKE_WIDTH * 0.5);
+        endCap.setRadius(STROKE_WIDTH * 0.5);
+        getChildren().setAll(startCap);
+        getChildren().addAll(segments);
+        getChildren().add(endCap);
+        setLength(length);
+    }
+
+    /**
+     * Shows the bar up to the given length.
+     * @param LENGTH length in degrees like in Arc, negative values run clockwise
+     */
+    void setLength(final double LENGTH) {
+        length = LENGTH;
+        final double SWEEP = Math.abs(LENGTH);
+        final int    COUNT = segments.size();
+        final int    LAST  = segmentAngle > 0 ? Math.min(COUNT - 1, (int) Math.ceil(SWEEP / segmentAngle) - 1) : -1;
+        for (int i = 0; i < COUNT; i++) {
+            Arc segment = segments.get(i);
+            if (i > LAST) {
+                segment.setVisible(false);
+                continue;
+            }
+            double sweep = i == LAST ? SWEEP - i * segmentAngle : segmentAngle + overlap;
+            segment.setLength(-sweep);
+            segment.setVisible(true);
+        }
+        startCap.setVisible(LAST >= 0);
+        endCap.setVisible(LAST >= 0);
+        if (LAST < 0) return;
+        placeCap(startCap, startAngle, segments.get(0));
+        placeCap(endCap, startAngle - SWEEP, segments.get(LAST));
+    }
+
+    // Arc angles are counter clockwise from 3 o'clock with the y axis pointing down
+    private void placeCap(final Circle CAP, final double ANGLE, final Arc SEGMENT) {
+        final double RADIANS = Math.toRadians(ANGLE);
+        CAP.setCenterX(centerX + radius * Math.cos(RADIANS));
+        CAP.setCenterY(centerY - radius * Math.sin(RADIANS));
+        CAP.setFill(SEGMENT.getStroke());
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.regulators;
+
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Fits the font size of a text into a given width. The width of a text grows linearly
+ * with the font size, so it is measured once at a reference size and scaled. The
+ * measured widths are shared and keyed by the font and the shape of the text, which
+ * is the text with every digit replaced by 0 (the digits of Roboto all have the same
+ * advance). Every fitter remembers its last result, so fitting the same text into the
+ * same width again costs nothing.
+ */
+final class TextFitter {
+    private static final double              REFERENCE_SIZE = 100;
+    private static final int                 MAX_ENTRIES    = 512;
+    private static final Map<String, Double> WIDTHS         = new LinkedHashMap<>(64, 0.75f, true);
+    private static final Text                MEASURE        = new Text();
+    private String                           lastText;
+    private String                           lastFontName;
+    private double                           lastMaxWidth;
+    private double                           lastFontSize;
+    private double                           lastFittedSize;
+
+
+    // ******************** Constructors **************************************
+    TextFitter() {
+        lastFittedSize = -1;
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Sets the font of the given text to the given size or, if the text would be wider
+     * than the given width, to the size at which it fits.
+     * @param TEXT the text node to fit
+     * @param MAX_WIDTH the available width
+     * @param FONT_SIZE the preferred font size
+     */
+    void fit(final Text TEXT, final double MAX_WIDTH, final double FONT_SIZE) {
+        final Font   FONT      = TEXT.getFont();
+        final String FONT_NAME = FONT.getName();
+        final String STRING    = TEXT.getText();
+        if (STRING.equals(lastText) && FONT_NAME.equals(lastFontName) && Double.compare(MAX_WIDTH, lastMaxWidth) == 0 &&
+            Double.compare(FONT_SIZE, lastFontSize) == 0 && Double.compare(FONT.getSize(), lastFittedSize) == 0) return;
+
+        final double WIDTH = referenceWidth(FONT_NAME, STRING) * FONT_SIZE / REFERENCE_SIZE;
+        double fontSize = WIDTH > MAX_WIDTH && WIDTH > 0 ? Math.max(0, FONT_SIZE * MAX_WIDTH / WIDTH) : FONT_SIZE;
+        if (Double.compare(FONT.getSize(), fontSize) != 0) { TEXT.setFont(new Font(FONT_NAME, fontSize)); }
+
+        // Hinting can make small sizes a bit wider than the linear estimate
+        final double FITTED_WIDTH = TEXT.getLayoutBounds().getWidth();
+        if (FITTED_WIDTH > MAX_WIDTH && FITTED_WIDTH > 0) {
+            fontSize = Math.max(0, fontSize * MAX_WIDTH / FITTED_WIDTH);
+            TEXT.setFont(new Font(FONT_NAME, fontSize));
+        }
+
+        lastText       = STRING;
+        lastFontName   = FONT_NAME;
+        lastMaxWidth   = MAX_WIDTH;
+        lastFontSize   = FONT_SIZE;
+        lastFittedSize = TEXT.getFont().getSize();
+    }
+
+    private static double referenceWidth(final String FONT_NAME, final String STRING) {
+        final String SHAPE = shape(STRING);
+        final String KEY   = new StringBuilder(FONT_NAME.length() + SHAPE.length() + 1).append(FONT_NAME).append('\n').append(SHAPE).toString();
+        synchronized (WIDTHS) {
+            Double width = WIDTHS.get(KEY);
+            if (null != width) return width;
+            MEASURE.setFont(new Font(FONT_NAME, REFERENCE_SIZE));
+            MEASURE.setText(SHAPE);
+            width = MEASURE.getLayoutBounds().getWidth();
+            WIDTHS.put(KEY, width);
+            if (WIDTHS.size() > MAX_ENTRIES) {
+                Iterator<Double> iterator = WIDTHS.values().iterator();
+                iterator.next();
+                iterator.remove();
+            }
+            return width;
+        }
+    }
+
+    private static String shape(final String STRING) {
+        final char[] CHARS = STRING.toCharArray();
+        for (int i = 0; i < CHARS.length; i++) { if (CHARS[i] >= '1' && CHARS[i] <= '9') { CHARS[i] = '0'; } }
+        return new String(CHARS);
+    }
+}
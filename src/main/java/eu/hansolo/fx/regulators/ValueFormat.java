@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.regulators;
+
+import java.util.Locale;
+
+
+/**
+ * Formats values with 0 - 2 decimals followed by a unit like
+ * String.format(Locale.US, "%.2f" + UNIT, VALUE) would do, but writes the characters
+ * into a reusable buffer and remembers the last result, so unchanged texts can be
+ * skipped. Values that are not finite or of 1e12 and more, where the rounding can't
+ * be decided with doubles anymore, fall back to String.format().
+ */
+final class ValueFormat {
+    private static final long[] SCALES    = { 1, 10, 100 };
+    private static final double MAX_VALUE = 1e12;
+    private int                 decimals;
+    private char[]              unit;
+    private char[]              chars;
+    private int                 length;
+    private char[]              scratch;
+    private String              text;
+
+
+    // ******************** Constructors **************************************
+    ValueFormat(final int DECIMALS, final String UNIT) {
+        chars   = new char[32];
+        scratch = new char[32];
+        length  = -1;
+        setDecimals(DECIMALS);
+        setUnit(UNIT);
+    }
+
+
+    // ******************** Methods *******************************************
+    void setDecimals(final int DECIMALS) {
+        decimals = DECIMALS < 0 ? 0 : (DECIMALS > 2 ? 2 : DECIMALS);
+        length   = -1;
+    }
+
+    // The unit properties of the controls escape % as %% for the format string
+    void setUnit(final String UNIT) {
+        unit   = null == UNIT ? new char[0] : UNIT.replace("%%", "%").toCharArray();
+        length = -1;
+    }
+
+    /**
+     * Formats the given value into the buffer.
+     * @param VALUE the value to format
+     * @return true if the text differs from the text of the last call
+     */
+    boolean format(final double VALUE) {
+        if (Double.isNaN(VALUE) || Math.abs(VALUE) >= MAX_VALUE) {
+            String fallback = String.format(Locale.US, "%." + decimals + "f", VALUE) + new String(unit);
+            ensureCapacity(fallback.length());
+            fallback.getChars(0, fallback.length(), scratch, 0);
+            return swap(fallback.length());
+        }
+        final long    SCALE    = SCALES[decimals];
+        final double  ABS      = Math.abs(VALUE);
+        long          rounded  = (long) Math.floor(ABS * SCALE);
+        // Formatter rounds the shortest decimal representation half up. If the decimal midpoint
+        // is that representation its nearest double is the value itself (2.675 stored as 2.67499..),
+        // otherwise comparing with the nearest double of the midpoint gives the same result as
+        // comparing with the exact midpoint (2.4999999999999996 stays below 2.5)
+        if (ABS >= (rounded + 0.5) / SCALE) { rounded++; }
+        final long    INTEGER  = rounded / SCALE;
+        final long    FRACTION = rounded % SCALE;
+        final int     DIGITS   = digits(INTEGER);
+        final boolean NEGATIVE = VALUE < 0 || (VALUE == 0 && 1.0 / VALUE < 0);
+        final int     LENGTH   = (NEGATIVE ? 1 : 0) + DIGITS + (decimals > 0 ? 1 + decimals : 0) + unit.length;
+        ensureCapacity(LENGTH);
+
+        int index = 0;
+        if (NEGATIVE) { scratch[index++] = '-'; }
+        long integer = INTEGER;
+        for (int i = index + DIGITS - 1; i >= index; i--) {
+            scratch[i] = (char) ('0' + integer % 10);
+            integer /= 10;
+        }
+        index += DIGITS;
+        if (decimals > 0) {
+            scratch[index++] = '.';
+            long fraction = FRACTION;
+            for (int i = index + decimals - 1; i >= index; i--) {
+                scratch[i] = (char) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            index += decimals;
+        }
+        System.arraycopy(unit, 0, scratch, index, unit.length);
+        return swap(LENGTH);
+    }
+
+    @Override public String toString() {
+        if (null == text) { text = new String(chars, 0, Math.max(0, length)); }
+        return text;
+    }
+
+    private boolean swap(final int LENGTH) {
+        if (LENGTH == length) {
+            boolean equal = true;
+            for (int i = 0; i < LENGTH; i++) {
+                if (chars[i] != scratch[i]) {
+                    equal = false;
+                    break;
+                }
+            }
+            if (equal) return false;
+        }
+        char[] tmp = chars;
+        chars   = scratch;
+        scratch = tmp;
+        length  = LENGTH;
+        text    = null;
+        return true;
+    }
+
+    private void ensureCapacity(final int LENGTH) {
+        if (scratch.length >= LENGTH) return;
+        scratch = new char[LENGTH * 2];
+        char[] copy = new char[LENGTH * 2];
+        System.arraycopy(chars, 0, copy, 0, Math.max(0, length));
+        chars = copy;
+    }
+
+    private static int digits(final long VALUE) {
+        int  digits = 1;
+        long value  = VALUE;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}